@@ -0,0 +1,526 @@
+package net.filebot;
+
+import static java.nio.charset.StandardCharsets.*;
+import static net.filebot.Logging.*;
+import static net.filebot.util.FileUtilities.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+import net.filebot.History.Element;
+import net.filebot.History.Sequence;
+
+/**
+ * Append-only line-delimited rename history journal with a binary side index by path and date. The side index is only trusted if it matches the size and Last-Modified date of the journal.
+ *
+ * <pre>
+ * #&lt;date&gt;	&lt;count&gt;
+ * &lt;dir&gt;	&lt;from&gt;	&lt;to&gt;
+ * ...
+ * </pre>
+ */
+class HistoryJournal {
+
+	private static final int INDEX_MAGIC = 0x46424833;
+
+	// compact journal once it has grown to twice its size since the last compaction
+	private static final long COMPACT_THRESHOLD = 4 * 1024 * 1024;
+
+	private final File journalFile;
+	private final File indexFile;
+	private final File legacyFile;
+	private final File lockFile;
+
+	private List<IndexEntry> index;
+	private long indexLength = -1;
+	private long indexModified = -1;
+	private long compactLength = 0;
+
+	public HistoryJournal(File journalFile, File indexFile, File legacyFile) {
+		this.journalFile = journalFile;
+		this.indexFile = indexFile;
+		this.legacyFile = legacyFile;
+		this.lockFile = new File(journalFile.getPath() + ".lock");
+	}
+
+	public synchronized void append(Collection<Sequence> sequences) throws IOException {
+		locked(channel -> {
+			List<IndexEntry> index = getIndex(channel);
+
+			// discard incomplete records from interrupted writes
+			if (channel.size() > indexLength) {
+				channel.truncate(indexLength);
+			}
+
+			for (Sequence sequence : sequences) {
+				indexLength = write(channel, index, indexLength, sequence);
+			}
+
+			if (indexLength > COMPACT_THRESHOLD && indexLength > compactLength * 2) {
+				compact(channel);
+			}
+
+			storeIndex();
+			return null;
+		});
+	}
+
+	public synchronized History read() throws IOException {
+		return locked(channel -> {
+			getIndex(channel);
+			return new History(scan(channel, 0, indexLength, null));
+		});
+	}
+
+	public synchronized History read(Date since) throws IOException {
+		return read(it -> it.date >= since.getTime(), null);
+	}
+
+	public synchronized History read(Collection<File> files) throws IOException {
+		Set<File> paths = new LinkedHashSet<File>(files);
+		int[] keys = paths.stream().mapToInt(HistoryJournal::key).sorted().distinct().toArray();
+
+		return read(it -> it.matches(keys), it -> matches(it, paths));
+	}
+
+	public synchronized int totalSize() throws IOException {
+		return locked(channel -> {
+			return getIndex(channel).stream().mapToInt(it -> it.count).sum();
+		});
+	}
+
+	public synchronized void compact() throws IOException {
+		locked(channel -> {
+			getIndex(channel);
+			compact(channel);
+			storeIndex();
+			return null;
+		});
+	}
+
+	private History read(Predicate<IndexEntry> index, Predicate<Sequence> filter) throws IOException {
+		return locked(channel -> {
+			List<Sequence> sequences = new ArrayList<Sequence>();
+
+			for (IndexEntry it : getIndex(channel)) {
+				if (index.test(it)) {
+					ByteBuffer record = ByteBuffer.allocate(it.length);
+					while (record.hasRemaining() && channel.read(record, it.offset + record.position()) >= 0) {
+						// read record fully
+					}
+
+					Sequence sequence = decode(new String(record.array(), 0, record.position(), UTF_8));
+					if (sequence != null && (filter == null || filter.test(sequence))) {
+						sequences.add(sequence);
+					}
+				}
+			}
+
+			return new History(sequences);
+		});
+	}
+
+	private <T> T locked(JournalOperation<T> operation) throws IOException {
+		// lock a separate file because compaction replaces the journal file
+		try (FileChannel lock = FileChannel.open(lockFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+			lock.lock(); // released when the channel is closed
+
+			try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+				return operation.apply(channel);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface JournalOperation<T> {
+
+		T apply(FileChannel channel) throws IOException;
+	}
+
+	private List<IndexEntry> getIndex(FileChannel channel) throws IOException {
+		long size = channel.size();
+		long modified = journalFile.lastModified();
+
+		// import legacy XML history once
+		if (size == 0 && index == null && legacyFile.length() > 0) {
+			importLegacyHistory(channel);
+			return index;
+		}
+
+		// in-memory index is up-to-date
+		if (index != null && indexLength == size && indexModified == modified) {
+			return index;
+		}
+
+		// load persistent index and catch up with records that have been appended since
+		loadIndex();
+
+		// journal has been modified by someone else (e.g. restored from backup) so we can't trust the index at all
+		if (indexLength > size || indexModified != modified) {
+			index = new ArrayList<IndexEntry>();
+			indexLength = 0;
+			compactLength = 0;
+		}
+
+		if (indexLength < size) {
+			scan(channel, indexLength, size, index);
+		}
+
+		indexModified = modified;
+		return index;
+	}
+
+	private void importLegacyHistory(FileChannel channel) throws IOException {
+		index = new ArrayList<IndexEntry>();
+		indexLength = 0;
+
+		try (InputStream in = new BufferedInputStream(new FileInputStream(legacyFile))) {
+			for (Sequence sequence : History.importHistory(in).sequences()) {
+				indexLength = write(channel, index, indexLength, sequence);
+			}
+		}
+
+		compactLength = indexLength;
+		storeIndex();
+
+		// keep legacy history as backup but make sure that nobody mistakes it for the current history
+		File backup = new File(legacyFile.getPath() + ".bak");
+		try {
+			Files.move(legacyFile.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			debug.info(format("Imported %s into %s (legacy history moved to %s)", legacyFile.getName(), journalFile.getName(), backup.getName()));
+		} catch (Exception e) {
+			debug.log(Level.WARNING, "Failed to move legacy history file: " + legacyFile, e);
+		}
+	}
+
+	private void loadIndex() {
+		index = new ArrayList<IndexEntry>();
+		indexLength = 0;
+		indexModified = -1;
+		compactLength = 0;
+
+		if (indexFile.length() <= 0) {
+			return;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			// index files of previous versions are simply rebuilt
+			if (in.readInt() != INDEX_MAGIC) {
+				return;
+			}
+
+			long length = in.readLong();
+			long modified = in.readLong();
+			long compact = in.readLong();
+			int n = in.readInt();
+
+			List<IndexEntry> entries = new ArrayList<IndexEntry>(n);
+			for (int i = 0; i < n; i++) {
+				long offset = in.readLong();
+				int size = in.readInt();
+				long date = in.readLong();
+				int count = in.readInt();
+				int[] keys = new int[in.readInt()];
+				for (int k = 0; k < keys.length; k++) {
+					keys[k] = in.readInt();
+				}
+				entries.add(new IndexEntry(offset, size, date, count, keys));
+			}
+
+			index = entries;
+			indexLength = length;
+			indexModified = modified;
+			compactLength = compact;
+		} catch (Exception e) {
+			debug.log(Level.WARNING, "Failed to read history index", e);
+		}
+	}
+
+	private void storeIndex() {
+		// remember Last-Modified date of our own changes
+		indexModified = journalFile.lastModified();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+			out.writeInt(INDEX_MAGIC);
+			out.writeLong(indexLength);
+			out.writeLong(indexModified);
+			out.writeLong(compactLength);
+			out.writeInt(index.size());
+
+			for (IndexEntry it : index) {
+				out.writeLong(it.offset);
+				out.writeInt(it.length);
+				out.writeLong(it.date);
+				out.writeInt(it.count);
+				out.writeInt(it.keys.length);
+				for (int k : it.keys) {
+					out.writeInt(k);
+				}
+			}
+		} catch (Exception e) {
+			debug.log(Level.WARNING, "Failed to write history index", e);
+		}
+	}
+
+	private long write(FileChannel channel, List<IndexEntry> index, long position, Sequence sequence) throws IOException {
+		byte[] record = encode(sequence).getBytes(UTF_8);
+
+		ByteBuffer buffer = ByteBuffer.wrap(record);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+
+		index.add(new IndexEntry(position, record.length, sequence));
+		return position + record.length;
+	}
+
+	private void compact(FileChannel channel) throws IOException {
+		// drop duplicate sequences (e.g. from repeated history imports)
+		Set<Sequence> sequences = new LinkedHashSet<Sequence>(scan(channel, 0, indexLength, null));
+
+		debug.fine(() -> String.format("Compact history journal: %,d bytes (%,d sequences)", indexLength, sequences.size()));
+
+		// write compacted journal to a temporary file and then replace the journal, so that the history is never lost if we are interrupted
+		File part = File.createTempFile(journalFile.getName(), ".part", journalFile.getParentFile());
+
+		try {
+			List<IndexEntry> entries = new ArrayList<IndexEntry>(sequences.size());
+			long length = 0;
+
+			try (FileChannel out = FileChannel.open(part.toPath(), StandardOpenOption.WRITE)) {
+				for (Sequence sequence : sequences) {
+					length = write(out, entries, length, sequence);
+				}
+				out.force(true);
+			}
+
+			Files.move(part.toPath(), journalFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+			index = entries;
+			indexLength = length;
+			compactLength = length;
+		} finally {
+			Files.deleteIfExists(part.toPath());
+		}
+	}
+
+	/**
+	 * Parse all complete records in the given byte range and optionally add them to the index.
+	 */
+	private List<Sequence> scan(FileChannel channel, long start, long end, List<IndexEntry> index) throws IOException {
+		List<Sequence> sequences = new ArrayList<Sequence>();
+
+		InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(start)), 1 << 16);
+		ByteArrayOutputStream record = new ByteArrayOutputStream(1 << 12);
+		ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+		long position = start;
+		long offset = start;
+		long valid = start;
+		int remaining = -1;
+
+		while (position < end) {
+			int b = in.read();
+			if (b < 0) {
+				break;
+			}
+
+			position++;
+			line.write(b);
+
+			if (b != '\n') {
+				continue;
+			}
+
+			// header line starts a new record
+			if (remaining < 0) {
+				record.reset();
+				offset = position - line.size();
+				remaining = parseHeader(line.toString(UTF_8.name()));
+			} else {
+				remaining--;
+			}
+
+			line.writeTo(record);
+			line.reset();
+
+			if (remaining == 0) {
+				Sequence sequence = decode(record.toString(UTF_8.name()));
+				if (sequence != null) {
+					sequences.add(sequence);
+					if (index != null) {
+						index.add(new IndexEntry(offset, record.size(), sequence));
+					}
+				}
+				remaining = -1;
+				valid = position;
+			}
+		}
+
+		// ignore incomplete trailing records
+		if (index != null) {
+			indexLength = valid;
+		}
+
+		return sequences;
+	}
+
+	private static int parseHeader(String line) {
+		if (line.startsWith("#")) {
+			try {
+				return Integer.parseInt(line.substring(line.indexOf('\t') + 1).trim());
+			} catch (Exception e) {
+				debug.warning("Bad history record: " + line);
+			}
+		}
+		return 0;
+	}
+
+	private static String encode(Sequence sequence) {
+		StringBuilder s = new StringBuilder();
+		s.append('#').append(sequence.date().getTime()).append('\t').append(sequence.elements().size()).append('\n');
+
+		for (Element it : sequence.elements()) {
+			s.append(escape(it.dir().getPath())).append('\t').append(escape(it.from())).append('\t').append(escape(it.to())).append('\n');
+		}
+		return s.toString();
+	}
+
+	private static Sequence decode(String record) {
+		String[] lines = record.split("\n");
+		if (lines.length == 0 || !lines[0].startsWith("#")) {
+			return null;
+		}
+
+		try {
+			Date date = new Date(Long.parseLong(lines[0].substring(1, lines[0].indexOf('\t'))));
+			List<Element> elements = new ArrayList<Element>(lines.length - 1);
+
+			for (int i = 1; i < lines.length; i++) {
+				String[] values = lines[i].split("\t", 3);
+				elements.add(new Element(unescape(values[1]), unescape(values[2]), new File(unescape(values[0]))));
+			}
+
+			return new Sequence(date, elements);
+		} catch (Exception e) {
+			debug.warning("Bad history record: " + lines[0]);
+		}
+		return null;
+	}
+
+	private static String escape(String value) {
+		StringBuilder s = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			switch (c) {
+			case '\\':
+				s.append("\\\\");
+				break;
+			case '\t':
+				s.append("\\t");
+				break;
+			case '\n':
+				s.append("\\n");
+				break;
+			case '\r':
+				s.append("\\r");
+				break;
+			default:
+				s.append(c);
+			}
+		}
+		return s.toString();
+	}
+
+	private static String unescape(String value) {
+		if (value.indexOf('\\') < 0) {
+			return value;
+		}
+
+		StringBuilder s = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				char e = value.charAt(++i);
+				s.append(e == 't' ? '\t' : e == 'n' ? '\n' : e == 'r' ? '\r' : e);
+			} else {
+				s.append(c);
+			}
+		}
+		return s.toString();
+	}
+
+	private static int key(File file) {
+		// same semantics as File.equals (i.e. case-insensitive on Windows)
+		return file.hashCode();
+	}
+
+	private static List<File> paths(Element element) {
+		File from = new File(element.dir(), element.from());
+		File to = new File(element.to());
+		if (!to.isAbsolute()) {
+			to = new File(element.dir(), element.to());
+		}
+		return Arrays.asList(from, to);
+	}
+
+	/**
+	 * Check if the given sequence renamed any of the given files or any file within the given folders.
+	 */
+	public static boolean matches(Sequence sequence, Set<File> files) {
+		return sequence.elements().stream().flatMap(it -> paths(it).stream()).flatMap(f -> listPath(f).stream()).anyMatch(files::contains);
+	}
+
+	private static class IndexEntry {
+
+		public final long offset;
+		public final int length;
+		public final long date;
+		public final int count;
+		public final int[] keys;
+
+		public IndexEntry(long offset, int length, long date, int count, int[] keys) {
+			this.offset = offset;
+			this.length = length;
+			this.date = date;
+			this.count = count;
+			this.keys = keys;
+		}
+
+		public IndexEntry(long offset, int length, Sequence sequence) {
+			this(offset, length, sequence.date().getTime(), sequence.elements().size(), sequence.elements().stream().flatMap(it -> paths(it).stream()).flatMap(f -> listPath(f).stream()).mapToInt(HistoryJournal::key).sorted().distinct().toArray());
+		}
+
+		public boolean matches(int[] query) {
+			for (int k : query) {
+				if (Arrays.binarySearch(keys, k) >= 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -1,22 +1,19 @@
 package net.filebot;
 
-import static java.nio.channels.Channels.*;
 import static net.filebot.Logging.*;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileLock;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.logging.Level;
 
-import org.apache.commons.io.input.CloseShieldInputStream;
-import org.apache.commons.io.output.CloseShieldOutputStream;
-
 import net.filebot.History.Element;
 
 public final class HistorySpooler {
@@ -31,7 +28,7 @@ public final class HistorySpooler {
 		Runtime.getRuntime().addShutdownHook(new Thread(HistorySpooler.getInstance()::commit, "HistorySpoolerShutdownHook")); // commit session history on shutdown
 	}
 
-	private final File persistentHistoryFile = ApplicationFolder.AppData.resolve("history.xml");
+	private final HistoryJournal persistentHistory = new HistoryJournal(ApplicationFolder.AppData.resolve("history.journal"), ApplicationFolder.AppData.resolve("history.index"), ApplicationFolder.AppData.resolve("history.xml"));
 
 	private int sessionHistoryTotalSize = 0;
 	private int persistentHistoryTotalSize = -1;
@@ -40,17 +37,24 @@ public final class HistorySpooler {
 	private final History sessionHistory = new History();
 
 	public synchronized History getCompleteHistory() throws IOException {
-		if (persistentHistoryFile.length() <= 0) {
-			return new History(sessionHistory.sequences());
-		}
+		History history = persistentHistory.read();
+		history.addAll(sessionHistory.sequences());
+		return history;
+	}
 
-		try (FileChannel channel = FileChannel.open(persistentHistoryFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
-			try (FileLock lock = channel.lock()) {
-				History history = History.importHistory(new CloseShieldInputStream(newInputStream(channel))); // keep JAXB from closing the stream
-				history.addAll(sessionHistory.sequences());
-				return history;
-			}
-		}
+	public synchronized History getCompleteHistory(Collection<File> files) throws IOException {
+		// lookup sequences via the history index instead of reading the complete history
+		History history = persistentHistory.read(files);
+
+		Set<File> paths = new HashSet<File>(files);
+		sessionHistory.sequences().stream().filter(it -> HistoryJournal.matches(it, paths)).forEach(history::add);
+		return history;
+	}
+
+	public synchronized History getCompleteHistory(Date since) throws IOException {
+		History history = persistentHistory.read(since);
+		sessionHistory.sequences().stream().filter(it -> !it.date().before(since)).forEach(history::add);
+		return history;
 	}
 
 	public synchronized void commit() {
@@ -59,31 +63,11 @@ public final class HistorySpooler {
 		}
 
 		try {
-			try (FileChannel channel = FileChannel.open(persistentHistoryFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
-				try (FileLock lock = channel.lock()) {
-					History history = new History();
-
-					// load existing history from previous sessions
-					if (channel.size() > 0) {
-						try {
-							channel.position(0);
-							history = History.importHistory(new CloseShieldInputStream(newInputStream(channel))); // keep JAXB from closing the stream
-						} catch (Exception e) {
-							debug.log(Level.SEVERE, "Failed to read history file", e);
-						}
-					}
-
-					// write new combined history
-					history.addAll(sessionHistory.sequences());
-
-					channel.position(0);
-					History.exportHistory(history, new CloseShieldOutputStream(newOutputStream(channel))); // keep JAXB from closing the stream
-					channel.truncate(channel.position());
-
-					sessionHistory.clear();
-					persistentHistoryTotalSize = history.totalSize();
-				}
-			}
+			// append session history to the persistent history journal
+			persistentHistory.append(sessionHistory.sequences());
+
+			sessionHistory.clear();
+			persistentHistoryTotalSize = persistentHistory.totalSize();
 		} catch (Exception e) {
 			debug.log(Level.SEVERE, "Failed to write history file", e);
 		}
@@ -40,6 +40,7 @@ import org.w3c.dom.Document;
 
 import net.filebot.cli.ArgumentBean;
 import net.filebot.cli.ArgumentProcessor;
+import net.filebot.cli.CmdlineDaemon;
 import net.filebot.format.ExpressionFormat;
 import net.filebot.platform.mac.MacAppUtilities;
 import net.filebot.platform.windows.WinAppUtilities;
@@ -115,6 +116,12 @@ public class Main {
 			// initialize history spooler
 			HistorySpooler.getInstance().setPersistentHistoryEnabled(useRenameHistory());
 
+			// daemon mode => keep caches and indexes warm and run commands sent by command-line clients
+			if (args.daemon) {
+				int status = new CmdlineDaemon(ApplicationFolder.AppData.resolve("daemon")).run();
+				System.exit(status);
+			}
+
 			// CLI mode => run command-line interface and then exit
 			if (args.runCLI()) {
 				// just import and print license when running with --license option
@@ -395,11 +402,12 @@ public class Main {
 		System.setProperty("grape.root", ApplicationFolder.AppData.resolve("grape").getPath());
 		System.setProperty("org.apache.commons.logging.Log", "org.apache.commons.logging.impl.NoOpLog");
 
-		if (args.unixfs) {
+		// daemon clients pass -unixfs and -no-xattr with each command
+		if (args.unixfs && !args.daemon) {
 			System.setProperty("unixfs", "true");
 		}
 
-		if (args.disableExtendedAttributes) {
+		if (args.disableExtendedAttributes && !args.daemon) {
 			System.setProperty("useExtendedFileAttributes", "false");
 			System.setProperty("useCreationDate", "false");
 		}
@@ -410,7 +418,7 @@ public class Main {
 		ApplicationFolder.TemporaryFiles.get().mkdirs();
 		ApplicationFolder.AppData.get().mkdirs();
 
-		if (args.runCLI()) {
+		if (args.runCLI() || args.daemon) {
 			// CLI logging settings
 			log.setLevel(args.getLogLevel());
 		} else {
@@ -20,6 +20,7 @@ import java.util.prefs.Preferences;
 
 import net.filebot.UserFiles.FileChooser;
 import net.filebot.cli.ArgumentBean;
+import net.filebot.cli.CmdlineDaemon;
 import net.filebot.util.PreferencesList;
 import net.filebot.util.PreferencesMap;
 import net.filebot.util.PreferencesMap.JsonAdapter;
@@ -56,7 +57,8 @@ public final class Settings {
 	}
 
 	public static boolean isUnixFS() {
-		return Boolean.parseBoolean(System.getProperty("unixfs"));
+		ArgumentBean args = CmdlineDaemon.getArguments();
+		return args != null && args.unixfs || Boolean.parseBoolean(System.getProperty("unixfs"));
 	}
 
 	public static boolean useNativeShell() {
@@ -68,11 +70,13 @@ public final class Settings {
 	}
 
 	public static boolean useExtendedFileAttributes() {
-		return Boolean.parseBoolean(System.getProperty("useExtendedFileAttributes"));
+		ArgumentBean args = CmdlineDaemon.getArguments();
+		return (args == null || !args.disableExtendedAttributes) && Boolean.parseBoolean(System.getProperty("useExtendedFileAttributes"));
 	}
 
 	public static boolean useCreationDate() {
-		return Boolean.parseBoolean(System.getProperty("useCreationDate"));
+		ArgumentBean args = CmdlineDaemon.getArguments();
+		return (args == null || !args.disableExtendedAttributes) && Boolean.parseBoolean(System.getProperty("useCreationDate"));
 	}
 
 	public static boolean useRenameHistory() {
@@ -225,7 +229,9 @@ public final class Settings {
 	}
 
 	public static ArgumentBean getApplicationArguments() {
-		return applicationArguments;
+		// arguments of the command that is currently running on behalf of a daemon client
+		ArgumentBean args = CmdlineDaemon.getArguments();
+		return args != null ? args : applicationArguments;
 	}
 
 	public static Settings forPackage(Class<?> type) {
@@ -24,6 +24,8 @@ import java.util.stream.Stream;
 
 import net.filebot.media.LocalDatasource;
 import net.filebot.similarity.MetricAvg;
+import net.filebot.util.PriorityThreadPool;
+import net.filebot.util.SystemProperty;
 import net.filebot.web.AcoustIDClient;
 import net.filebot.web.AnidbClient;
 import net.filebot.web.Datasource;
@@ -129,6 +131,9 @@ public final class WebServices {
 
 	public static final ExecutorService requestThreadPool = Executors.newCachedThreadPool();
 
+	// shared by all matchers to limit the number of concurrent lookups
+	public static final PriorityThreadPool matchThreadPool = new PriorityThreadPool("Matcher", SystemProperty.of("net.filebot.match.threads", Integer::parseInt, getPreferredThreadPoolSize()).get());
+
 	public static class TMDbClientWithLocalSearch extends TMDbClient {
 
 		public TMDbClientWithLocalSearch(String apikey, boolean adult) {
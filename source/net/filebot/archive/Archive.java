@@ -27,6 +27,10 @@ public class Archive implements Closeable {
 		return SystemProperty.of("net.filebot.Archive.extractor", Extractor::valueOf, Extractor.SevenZipNativeBindings).get();
 	}
 
+	public static int getExtractorThreadsPerDevice() {
+		return SystemProperty.of("net.filebot.Archive.threadsPerDevice", Integer::parseInt, 2).get();
+	}
+
 	public static enum Extractor {
 
 		SevenZipNativeBindings, SevenZipExecutable, ApacheVFS;
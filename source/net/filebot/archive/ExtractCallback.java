@@ -41,8 +41,9 @@ class ExtractCallback implements IArchiveExtractCallback {
 		}
 
 		String path = (String) inArchive.getProperty(index, PropID.PATH);
+		Long length = (Long) inArchive.getProperty(index, PropID.SIZE);
 		try {
-			OutputStream target = extractOut.getStream(new File(path));
+			OutputStream target = extractOut.getStream(new File(path), length != null ? length : -1);
 			if (target == null) {
 				return null;
 			}
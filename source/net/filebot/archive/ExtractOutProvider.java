@@ -1,4 +1,3 @@
-
 package net.filebot.archive;
 
 
@@ -11,4 +10,9 @@ public interface ExtractOutProvider {
 
 	OutputStream getStream(File archivePath) throws IOException;
 
+
+	default OutputStream getStream(File archivePath, long length) throws IOException {
+		return getStream(archivePath);
+	}
+
 }
@@ -4,11 +4,15 @@ import static java.util.stream.Collectors.*;
 
 import java.io.File;
 import java.io.FileFilter;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import net.filebot.vfs.FileInfo;
 
@@ -36,6 +40,11 @@ public class FileMapper implements ExtractOutProvider {
 
 	@Override
 	public OutputStream getStream(File entry) throws IOException {
+		return getStream(entry, -1);
+	}
+
+	@Override
+	public OutputStream getStream(File entry, long length) throws IOException {
 		File outputFile = getOutputFile(entry);
 		File outputFolder = outputFile.getParentFile();
 
@@ -44,7 +53,7 @@ public class FileMapper implements ExtractOutProvider {
 			throw new IOException("Failed to create folder: " + outputFolder);
 		}
 
-		return new FileOutputStream(outputFile);
+		return new FileChannelOutputStream(FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), length);
 	}
 
 	public FileFilter newPathFilter(Collection<FileInfo> selection) {
@@ -55,4 +64,85 @@ public class FileMapper implements ExtractOutProvider {
 		return f -> selection.contains(getOutputFile(f).getPath());
 	}
 
+	/**
+	 * Write extracted data via a large direct buffer. Direct buffers are expensive to allocate and are only released by the garbage collector, so they are reused for all entries and archives. The output file is resized to the expected length up front (i.e. sparse or preallocated depending on the file system) and truncated to the actual length when done.
+	 */
+	private static class FileChannelOutputStream extends OutputStream {
+
+		private static final int BUFFER_SIZE = 1024 * 1024;
+
+		// keep at most one idle buffer per concurrent extraction
+		private static final BlockingQueue<ByteBuffer> bufferPool = new ArrayBlockingQueue<ByteBuffer>(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+
+		public FileChannelOutputStream(FileChannel channel, long length) throws IOException {
+			this.channel = channel;
+
+			ByteBuffer buffer = bufferPool.poll();
+			this.buffer = buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+			if (length > BUFFER_SIZE) {
+				try {
+					channel.write(ByteBuffer.allocate(1), length - 1);
+				} catch (IOException e) {
+					channel.close();
+					release();
+					throw e;
+				}
+			}
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (!buffer.hasRemaining()) {
+				flushBuffer();
+			}
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (!buffer.hasRemaining()) {
+					flushBuffer();
+				}
+
+				int n = Math.min(len, buffer.remaining());
+				buffer.put(b, off, n);
+				off += n;
+				len -= n;
+			}
+		}
+
+		private void flushBuffer() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (channel.isOpen()) {
+				try {
+					flushBuffer();
+
+					// drop preallocated space that has not been written to
+					channel.truncate(channel.position());
+				} finally {
+					channel.close();
+					release();
+				}
+			}
+		}
+
+		private void release() {
+			buffer.clear();
+			bufferPool.offer(buffer);
+		}
+	}
+
 }
@@ -138,6 +138,9 @@ public class ArgumentBean {
 	@Option(name = "--log-lock", usage = "Lock log file", metaVar = "[yes, no]", handler = ExplicitBooleanOptionHandler.class)
 	public boolean logLock = true;
 
+	@Option(name = "-daemon", usage = "Run resident daemon for command-line clients")
+	public boolean daemon = false;
+
 	@Option(name = "-clear-cache", usage = "Clear cached and temporary data")
 	public boolean clearCache = false;
 
@@ -217,7 +220,7 @@ public class ArgumentBean {
 
 		// input file filter (e.g. useful on Windows where find -exec is not an option)
 		if (inputFileFilter != null) {
-			return filter(files, new ExpressionFileFilter(inputFileFilter, f -> f));
+			return new ExpressionFileFilter(inputFileFilter, f -> f).filter(files);
 		}
 
 		return files;
@@ -327,7 +330,8 @@ public class ArgumentBean {
 
 	public ExecCommand getExecCommand() {
 		try {
-			return exec == null || exec.isEmpty() ? null : ExecCommand.parse(exec, getOutputPath());
+			// commands sent by daemon clients run in the working directory of the client by default
+			return exec == null || exec.isEmpty() ? null : ExecCommand.parse(exec, output == null ? CmdlineDaemon.getWorkingDirectory() : getOutputPath());
 		} catch (Exception e) {
 			throw new CmdlineException("Illegal exec expression: " + exec);
 		}
@@ -0,0 +1,586 @@
+package net.filebot.cli;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.stream.Collectors.*;
+import static net.filebot.ExitCode.*;
+import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+
+import org.kohsuke.args4j.CmdLineException;
+
+import net.filebot.ApplicationFolder;
+import net.filebot.HistorySpooler;
+import net.filebot.Main;
+import net.filebot.format.ExpressionFormat;
+import net.filebot.media.MediaDetection;
+import net.filebot.util.DefaultThreadFactory;
+import net.filebot.util.PriorityThreadPool;
+
+/**
+ * Resident command-line daemon that keeps caches, indexes and the script engine warm and runs commands on behalf of local clients.
+ * <p>
+ * Clients connect via loopback socket and authenticate with the secret token from the endpoint file in the application data folder. Each command runs on its own thread with its own working directory, environment, standard streams, log settings and file system settings.
+ * <p>
+ * Use {@code java -cp FileBot.jar net.filebot.cli.CmdlineDaemon [args]} as lightweight client. The client falls back to running the command in-process if no daemon is running.
+ */
+public class CmdlineDaemon {
+
+	private static final int MAGIC = 0x46424443;
+
+	private static final int EXIT = 0;
+	private static final int STDOUT = 1;
+	private static final int STDERR = 2;
+
+	private static final int MAX_STRING_LENGTH = 1 << 20;
+
+	private static final InheritableThreadLocal<Command> command = new InheritableThreadLocal<Command>();
+
+	static {
+		// tasks on the shared thread pool run on behalf of the command that submitted them
+		PriorityThreadPool.inheritThreadLocal(command);
+	}
+
+	private final File endpoint;
+	private final Map<File, ReentrantLock> logLocks = new ConcurrentHashMap<File, ReentrantLock>();
+
+	public CmdlineDaemon(File endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	public int run() {
+		try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			// load indexes and script engine in the background so that the first command is fast as well
+			ExecutorService executor = Executors.newCachedThreadPool(new DefaultThreadFactory("Daemon"));
+			executor.execute(CmdlineDaemon::warmup);
+
+			accept(server, executor);
+			return SUCCESS;
+		} catch (Exception e) {
+			log.log(Level.SEVERE, e, cause("Failed to run daemon", e));
+			return ERROR;
+		} finally {
+			endpoint.delete();
+		}
+	}
+
+	void accept(ServerSocket server, Executor executor) throws IOException {
+		String token = createToken();
+		publish(server.getLocalPort(), token);
+
+		redirectStandardStreams();
+		log.info(format("Listening on %s:%d", server.getInetAddress().getHostAddress(), server.getLocalPort()));
+
+		while (!server.isClosed()) {
+			Socket socket;
+			try {
+				socket = server.accept();
+			} catch (SocketException e) {
+				if (server.isClosed()) {
+					return; // daemon has been stopped
+				}
+				throw e;
+			}
+			executor.execute(() -> serve(socket, token));
+		}
+	}
+
+	private void publish(int port, String token) throws IOException {
+		Path part = Paths.get(endpoint.getPath() + ".part");
+		Files.deleteIfExists(part);
+
+		// only the current user may read the token, so the file must never exist with default permissions
+		FileAttribute<?> permissions = PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+
+		try (SeekableByteChannel channel = Files.newByteChannel(part, EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), permissions)) {
+			channel.write(ByteBuffer.wrap(String.join("\n", String.valueOf(port), token).getBytes(UTF_8)));
+		} catch (UnsupportedOperationException e) {
+			throw new IOException("Failed to create private endpoint file: " + part, e);
+		}
+
+		Files.move(part, endpoint.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		endpoint.deleteOnExit();
+	}
+
+	static void redirectStandardStreams() throws IOException {
+		// route standard streams and log records to the client of the current command
+		System.setOut(new PrintStream(new CommandOutputStream(STDOUT, System.out), true, "UTF-8"));
+		System.setErr(new PrintStream(new CommandOutputStream(STDERR, System.err), true, "UTF-8"));
+		System.setIn(new CommandInputStream(System.in));
+
+		// each command uses its own log level and the daemon log level only applies to log records of the daemon itself
+		Level daemonLevel = log.getLevel();
+		log.setLevel(Level.ALL);
+		log.setFilter(r -> {
+			Command c = command.get();
+			return r.getLevel().intValue() >= (c == null ? daemonLevel : c.level).intValue();
+		});
+	}
+
+	private void serve(Socket socket, String token) {
+		try (Socket s = socket) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+			if (in.readInt() != MAGIC || !MessageDigest.isEqual(token.getBytes(UTF_8), readString(in).getBytes(UTF_8))) {
+				debug.warning(message("Reject connection", s.getRemoteSocketAddress()));
+				return;
+			}
+
+			File directory = new File(readString(in));
+			Map<String, String> environment = readEnvironment(in);
+			String[] argv = readArguments(in);
+
+			Command c = new Command(directory, environment, in, out);
+			command.set(c);
+
+			try {
+				c.exit(execute(c, argv));
+			} finally {
+				command.remove();
+			}
+		} catch (Exception e) {
+			debug.log(Level.WARNING, e, cause("Failed to serve client", e));
+		}
+	}
+
+	private int execute(Command c, String[] argv) {
+		try {
+			ArgumentBean args = resolve(ArgumentBean.parse(argv), c.directory);
+			c.level = args.getLogLevel();
+			c.args = args;
+
+			if (args.printHelp()) {
+				log.info(format("%s%n%n%s", getApplicationIdentifier(), args.usage()));
+				return SUCCESS;
+			}
+
+			if (args.printVersion()) {
+				log.info(String.join(" / ", getApplicationIdentifier(), getJavaRuntimeIdentifier(), getSystemIdentifier()));
+				return SUCCESS;
+			}
+
+			if (!args.runCLI() || args.daemon || args.clearCache() || args.clearUserData()) {
+				log.severe(message("Illegal daemon command", args));
+				return ERROR;
+			}
+
+			// lock the log file for the duration of the command just like separate processes would
+			ReentrantLock logLock = args.logFile != null && args.logLock ? logLocks.computeIfAbsent(args.getLogFile().getAbsoluteFile(), f -> new ReentrantLock(true)) : null;
+			if (logLock != null) {
+				logLock.lock();
+			}
+
+			try {
+				Handler logFileHandler = args.logFile == null ? null : createLogFileHandler(args.getLogFile(), args.logLock, Level.ALL);
+				if (logFileHandler != null) {
+					logFileHandler.setFilter(r -> command.get() == c);
+					log.addHandler(logFileHandler);
+					debug.addHandler(logFileHandler);
+				}
+
+				try {
+					return new ArgumentProcessor().run(args);
+				} finally {
+					if (logFileHandler != null) {
+						log.removeHandler(logFileHandler);
+						debug.removeHandler(logFileHandler);
+						logFileHandler.close();
+					}
+				}
+			} finally {
+				if (logLock != null) {
+					logLock.unlock();
+				}
+
+				// persist rename history after each command since the daemon might run indefinitely
+				HistorySpooler.getInstance().commit();
+			}
+		} catch (CmdLineException e) {
+			log.severe(e::getMessage);
+			return ERROR;
+		} catch (Throwable e) {
+			log.log(Level.SEVERE, e, e::toString);
+			return ERROR;
+		}
+	}
+
+	private ArgumentBean resolve(ArgumentBean args, File directory) {
+		// resolve relative paths against the working directory of the client
+		args.arguments = args.arguments.stream().map(a -> a.trim().isEmpty() ? a : resolve(directory, a)).collect(toList());
+
+		if (args.output != null) {
+			args.output = resolve(directory, args.output);
+		}
+
+		if (args.script != null && new File(directory, args.script).isFile()) {
+			args.script = resolve(directory, args.script);
+		}
+
+		return args;
+	}
+
+	private static String resolve(File directory, String path) {
+		File f = new File(path);
+		return f.isAbsolute() ? path : new File(directory, path).getPath();
+	}
+
+	private static void warmup() {
+		try {
+			new ExpressionFormat("{n}");
+			MediaDetection.warmupCachedResources();
+		} catch (Throwable e) {
+			debug.log(Level.WARNING, e, cause("Failed to warm up cached resources", e));
+		}
+	}
+
+	private static String createToken() {
+		byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	/**
+	 * @return arguments of the current command or {@code null} if the current thread is not running a command on behalf of a daemon client
+	 */
+	public static ArgumentBean getArguments() {
+		Command c = command.get();
+		return c == null ? null : c.args;
+	}
+
+	/**
+	 * @return working directory of the client or {@code null} if the current thread is not running a command on behalf of a daemon client
+	 */
+	public static File getWorkingDirectory() {
+		Command c = command.get();
+		return c == null ? null : c.directory;
+	}
+
+	public static Map<String, String> getEnvironment() {
+		Command c = command.get();
+		return c == null ? System.getenv() : c.environment;
+	}
+
+	public static PseudoConsole getConsole() {
+		Command c = command.get();
+		return c == null ? null : c.getConsole();
+	}
+
+	/**
+	 * Client-side state of a single command.
+	 */
+	private static class Command {
+
+		private final File directory;
+		private final Map<String, String> environment;
+
+		private final InputStream stdin;
+		private final DataOutputStream out;
+
+		private final PrintStream stdout;
+		private final PrintStream stderr;
+
+		private Level level = Level.ALL;
+		private ArgumentBean args;
+		private PseudoConsole console;
+
+		private volatile boolean closed = false;
+
+		public Command(File directory, Map<String, String> environment, InputStream stdin, DataOutputStream out) throws IOException {
+			this.directory = directory;
+			this.environment = environment;
+			this.stdin = stdin;
+			this.out = out;
+			this.stdout = new PrintStream(new FrameOutputStream(out, STDOUT), true, "UTF-8");
+			this.stderr = new PrintStream(new FrameOutputStream(out, STDERR), true, "UTF-8");
+		}
+
+		public synchronized PseudoConsole getConsole() {
+			if (console == null) {
+				console = new PseudoConsole(stdin, stdout, UTF_8);
+			}
+			return console;
+		}
+
+		public void exit(int status) throws IOException {
+			stdout.flush();
+			stderr.flush();
+			closed = true;
+
+			synchronized (out) {
+				out.writeByte(EXIT);
+				out.writeInt(status);
+				out.flush();
+			}
+		}
+	}
+
+	/**
+	 * Writes data frames for the given stream to the client.
+	 */
+	private static class FrameOutputStream extends OutputStream {
+
+		private final DataOutputStream out;
+		private final int stream;
+
+		public FrameOutputStream(DataOutputStream out, int stream) {
+			this.out = out;
+			this.stream = stream;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			synchronized (out) {
+				out.writeByte(stream);
+				out.writeInt(len);
+				out.write(b, off, len);
+				out.flush();
+			}
+		}
+	}
+
+	/**
+	 * Standard output stream that forwards data to the client of the current command or to the given default output stream.
+	 */
+	private static class CommandOutputStream extends OutputStream {
+
+		private final int stream;
+		private final PrintStream defaultOutputStream;
+
+		public CommandOutputStream(int stream, PrintStream defaultOutputStream) {
+			this.stream = stream;
+			this.defaultOutputStream = defaultOutputStream;
+		}
+
+		private PrintStream get() {
+			// threads that have been created during a command may outlive the command
+			Command c = command.get();
+			return c == null || c.closed ? defaultOutputStream : stream == STDOUT ? c.stdout : c.stderr;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			get().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			get().write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			get().flush();
+		}
+	}
+
+	/**
+	 * Standard input stream that reads data from the client of the current command or from the given default input stream.
+	 */
+	private static class CommandInputStream extends InputStream {
+
+		private final InputStream defaultInputStream;
+
+		public CommandInputStream(InputStream defaultInputStream) {
+			this.defaultInputStream = defaultInputStream;
+		}
+
+		private InputStream get() {
+			Command c = command.get();
+			return c == null || c.closed ? defaultInputStream : c.stdin;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return get().read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return get().read(b, off, len);
+		}
+
+		@Override
+		public int available() throws IOException {
+			return get().available();
+		}
+	}
+
+	/**
+	 * Send command to the resident daemon and forward standard streams until the command has finished.
+	 *
+	 * @return exit code or {@code null} if there is no daemon running
+	 */
+	public static Integer connect(File endpoint, String[] argv) throws IOException {
+		return connect(endpoint, argv, new File("").getAbsoluteFile(), System.getenv(), System.in, System.out, System.err);
+	}
+
+	static Integer connect(File endpoint, String[] argv, File directory, Map<String, String> environment, InputStream stdin, PrintStream stdout, PrintStream stderr) throws IOException {
+		if (!endpoint.isFile()) {
+			return null;
+		}
+
+		List<String> lines = Files.readAllLines(endpoint.toPath(), UTF_8);
+		int port = Integer.parseInt(lines.get(0));
+		String token = lines.get(1);
+
+		Socket socket;
+		try {
+			socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		} catch (IOException e) {
+			return null; // daemon is not running anymore
+		}
+
+		try (Socket s = socket) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+			DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+
+			out.writeInt(MAGIC);
+			writeString(out, token);
+			writeString(out, directory.getPath());
+			writeEnvironment(out, environment);
+			writeArguments(out, argv);
+			out.flush();
+
+			// forward standard input until end of stream
+			Thread pipe = new Thread(() -> {
+				try {
+					byte[] buffer = new byte[8192];
+					for (int n = 0; (n = stdin.read(buffer)) >= 0;) {
+						out.write(buffer, 0, n);
+						out.flush();
+					}
+					s.shutdownOutput();
+				} catch (IOException e) {
+					// ignore, connection has been closed
+				}
+			}, "StandardInput");
+			pipe.setDaemon(true);
+			pipe.start();
+
+			// forward standard output and error output until we receive the exit code
+			while (true) {
+				int stream = in.readByte();
+				if (stream == EXIT) {
+					return in.readInt();
+				}
+
+				byte[] data = new byte[in.readInt()];
+				in.readFully(data);
+
+				PrintStream target = stream == STDERR ? stderr : stdout;
+				target.write(data);
+				target.flush();
+			}
+		} catch (EOFException e) {
+			throw new IOException("Connection closed by daemon", e);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > MAX_STRING_LENGTH) {
+			throw new IOException("Illegal string length: " + length);
+		}
+
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	private static void writeEnvironment(DataOutputStream out, Map<String, String> environment) throws IOException {
+		out.writeInt(environment.size());
+		for (Map.Entry<String, String> it : environment.entrySet()) {
+			writeString(out, it.getKey());
+			writeString(out, it.getValue());
+		}
+	}
+
+	private static Map<String, String> readEnvironment(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		Map<String, String> environment = new LinkedHashMap<String, String>(n);
+		for (int i = 0; i < n; i++) {
+			environment.put(readString(in), readString(in));
+		}
+		return environment;
+	}
+
+	private static void writeArguments(DataOutputStream out, String[] argv) throws IOException {
+		out.writeInt(argv.length);
+		for (String it : argv) {
+			writeString(out, it);
+		}
+	}
+
+	private static String[] readArguments(DataInputStream in) throws IOException {
+		String[] argv = new String[in.readInt()];
+		for (int i = 0; i < argv.length; i++) {
+			argv[i] = readString(in);
+		}
+		return argv;
+	}
+
+	public static void main(String[] argv) {
+		try {
+			Integer status = connect(ApplicationFolder.AppData.resolve("daemon"), argv);
+			if (status != null) {
+				System.exit(status);
+			}
+		} catch (Exception e) {
+			System.err.println(e);
+			System.exit(ERROR);
+		}
+
+		// no daemon running => run command in-process
+		Main.main(argv);
+	}
+
+}
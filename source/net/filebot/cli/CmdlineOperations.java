@@ -3,6 +3,7 @@ package net.filebot.cli;
 import static java.nio.charset.StandardCharsets.*;
 import static java.util.Arrays.*;
 import static java.util.Collections.*;
+import static java.util.Comparator.*;
 import static java.util.stream.Collectors.*;
 import static net.filebot.Logging.*;
 import static net.filebot.MediaTypes.*;
@@ -19,6 +20,8 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,6 +38,16 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Level;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -46,6 +59,7 @@ import net.filebot.RenameAction;
 import net.filebot.StandardRenameAction;
 import net.filebot.archive.Archive;
 import net.filebot.archive.FileMapper;
+import net.filebot.format.ExpressionFileFilter;
 import net.filebot.format.ExpressionFileFormat;
 import net.filebot.format.ExpressionFilter;
 import net.filebot.format.ExpressionFormat;
@@ -58,6 +72,7 @@ import net.filebot.media.AutoDetection.Group;
 import net.filebot.media.AutoDetection.Type;
 import net.filebot.media.LocalDatasource;
 import net.filebot.media.VideoQuality;
+import net.filebot.media.XattrFingerprint;
 import net.filebot.similarity.CommonSequenceMatcher;
 import net.filebot.similarity.EpisodeMatcher;
 import net.filebot.similarity.Match;
@@ -72,6 +87,7 @@ import net.filebot.web.AudioTrack;
 import net.filebot.web.Datasource;
 import net.filebot.web.Episode;
 import net.filebot.web.EpisodeListProvider;
+import net.filebot.web.FloodLimit;
 import net.filebot.web.Movie;
 import net.filebot.web.MovieIdentificationService;
 import net.filebot.web.MoviePart;
@@ -111,27 +127,45 @@ public class CmdlineOperations implements CmdlineInterface {
 		AutoDetection auto = new AutoDetection(files, false, locale);
 		List<File> results = new ArrayList<File>();
 
-		for (Entry<Group, Set<File>> it : auto.group().entrySet()) {
-			if (it.getKey().types().length == 1) {
-				for (Type key : it.getKey().types()) {
-					switch (key) {
-					case Movie:
-						results.addAll(renameMovie(it.getValue(), action, conflict, output, format, TheMovieDB, query, filter, locale, strict, exec));
-						break;
-					case Series:
-						results.addAll(renameSeries(it.getValue(), action, conflict, output, format, TheTVDB, query, order, filter, locale, strict, exec));
-						break;
-					case Anime:
-						results.addAll(renameSeries(it.getValue(), action, conflict, output, format, AniDB, query, order, filter, locale, strict, exec));
-						break;
-					case Music:
-						results.addAll(renameMusic(it.getValue(), action, conflict, output, format, asList(MediaInfoID3, AcoustID), exec)); // prefer existing ID3 tags and use acoustid only when necessary
-						break;
+		Map<Group, Set<File>> groups = auto.group();
+
+		// match episode groups (i.e. TheTVDB and AniDB) concurrently so that slow (i.e. flood limited) requests don't hold up all other groups (and let interactive matches go first)
+		Map<Group, Future<List<Match<File, ?>>>> episodeMatches = new HashMap<Group, Future<List<Match<File, ?>>>>();
+		ExecutorService workerThreadPool = matchThreadPool.newTaskGroup(Thread.MIN_PRIORITY);
+
+		try {
+			groups.forEach((group, fileset) -> {
+				if (group.types().length == 1) {
+					EpisodeListProvider service = group.types()[0] == Type.Series ? TheTVDB : group.types()[0] == Type.Anime ? AniDB : null;
+					if (service != null) {
+						episodeMatches.put(group, workerThreadPool.submit(() -> matchSeries(fileset, service, query, order, filter, locale, strict)));
 					}
 				}
-			} else {
-				debug.warning(format("Failed to process group: %s => %s", it.getKey(), it.getValue()));
+			});
+
+			for (Entry<Group, Set<File>> it : groups.entrySet()) {
+				if (it.getKey().types().length == 1) {
+					for (Type key : it.getKey().types()) {
+						switch (key) {
+						case Movie:
+							results.addAll(renameMovie(it.getValue(), action, conflict, output, format, TheMovieDB, query, filter, locale, strict, exec));
+							break;
+						case Series:
+						case Anime:
+							List<Match<File, ?>> matches = getResult(episodeMatches.get(it.getKey()));
+							results.addAll(renameAll(formatMatches(matches, format, output), action, conflict, matches, exec));
+							break;
+						case Music:
+							results.addAll(renameMusic(it.getValue(), action, conflict, output, format, asList(MediaInfoID3, AcoustID), exec)); // prefer existing ID3 tags and use acoustid only when necessary
+							break;
+						}
+					}
+				} else {
+					debug.warning(format("Failed to process group: %s => %s", it.getKey(), it.getValue()));
+				}
 			}
+		} finally {
+			workerThreadPool.shutdownNow();
 		}
 
 		if (results.isEmpty()) {
@@ -162,6 +196,13 @@ public class CmdlineOperations implements CmdlineInterface {
 	}
 
 	public List<File> renameSeries(Collection<File> files, RenameAction renameAction, ConflictAction conflictAction, File outputDir, ExpressionFileFormat format, EpisodeListProvider db, String query, SortOrder sortOrder, ExpressionFilter filter, Locale locale, boolean strict, ExecCommand exec) throws Exception {
+		List<Match<File, ?>> matches = matchSeries(files, db, query, sortOrder, filter, locale, strict);
+
+		// rename episodes
+		return renameAll(formatMatches(matches, format, outputDir), renameAction, conflictAction, matches, exec);
+	}
+
+	private List<Match<File, ?>> matchSeries(Collection<File> files, EpisodeListProvider db, String query, SortOrder sortOrder, ExpressionFilter filter, Locale locale, boolean strict) throws Exception {
 		log.config(format("Rename episodes using [%s]", db.getName()));
 
 		// ignore sample files
@@ -176,9 +217,9 @@ public class CmdlineOperations implements CmdlineInterface {
 		List<Match<File, ?>> matches = new ArrayList<Match<File, ?>>();
 
 		// auto-determine optimal batch sets
-		for (Entry<Set<File>, Set<String>> sameSeriesGroup : mapSeriesNamesByFiles(mediaFiles, locale, db == AniDB).entrySet()) {
-			List<List<File>> batchSets = new ArrayList<List<File>>();
+		List<List<File>> batchSets = new ArrayList<List<File>>();
 
+		for (Entry<Set<File>, Set<String>> sameSeriesGroup : mapSeriesNamesByFiles(mediaFiles, locale, db == AniDB).entrySet()) {
 			if (sameSeriesGroup.getValue() != null && sameSeriesGroup.getValue().size() > 0) {
 				// handle series name batch set all at once
 				batchSets.add(new ArrayList<File>(sameSeriesGroup.getKey()));
@@ -186,44 +227,54 @@ public class CmdlineOperations implements CmdlineInterface {
 				// these files don't seem to belong to any series -> handle folder per folder
 				batchSets.addAll(mapByFolder(sameSeriesGroup.getKey()).values());
 			}
+		}
 
-			for (List<File> batch : batchSets) {
-				// fetch episode data
-				List<Episode> episodes;
-
-				if (query == null) {
-					Collection<String> seriesNames = detectSeriesNames(batch, db == AniDB, locale); // detect series name by common word sequence
-					log.config("Auto-detected query: " + seriesNames);
-
-					if (seriesNames.size() == 0) {
-						log.warning("Failed to detect query for files: " + batch);
-						continue;
-					}
-
-					if (strict && seriesNames.size() > 1) {
-						throw new CmdlineException("Multiple queries: Processing multiple shows at once requires -non-strict matching: " + seriesNames);
-					}
+		// use --q option and pick first result
+		List<Episode> seriesEpisodes = query != null && isSeriesID(query) ? db.getEpisodeList(Integer.parseInt(query), sortOrder, locale) : null;
+		Set<SearchResult> querySeries = query != null && seriesEpisodes == null ? selectSeries(searchSeries(db, singleton(query), locale), false, 1) : null;
 
-					episodes = fetchEpisodeSet(db, seriesNames, sortOrder, locale, strict, 5); // consider episodes of up to N search results for each query
-				} else {
-					if (isSeriesID(query)) {
-						episodes = db.getEpisodeList(Integer.parseInt(query), sortOrder, locale);
-					} else {
-						episodes = fetchEpisodeSet(db, singleton(query), sortOrder, locale, false, 1); // use --q option and pick first result
-					}
+		// process batch sets in stages (detect and search, select, fetch episode data, match) so that slow (i.e. flood limited) requests don't hold up all other batch sets (and let interactive matches go first)
+		ExecutorService workerThreadPool = matchThreadPool.newTaskGroup(Thread.MIN_PRIORITY);
+		try {
+			// detect series names and search for each batch set concurrently
+			List<Future<Map<String, List<SearchResult>>>> searchResults = new ArrayList<Future<Map<String, List<SearchResult>>>>(batchSets.size());
+			if (query == null) {
+				for (List<File> batch : batchSets) {
+					searchResults.add(workerThreadPool.submit(() -> searchSeries(db, detectSeriesNames(batch, db == AniDB, locale), locale)));
 				}
+			}
 
-				if (episodes.isEmpty()) {
-					continue;
+			// select series in batch set order so that log messages are not interleaved, and fetch episode data of each distinct series once as soon as it has been selected
+			Map<SearchResult, Future<List<Episode>>> episodeLists = new HashMap<SearchResult, Future<List<Episode>>>();
+			List<Set<SearchResult>> seriesByBatch = new ArrayList<Set<SearchResult>>(batchSets.size());
+
+			for (int i = 0; i < batchSets.size(); i++) {
+				Set<SearchResult> series = query == null ? selectSeries(batchSets.get(i), getResult(searchResults.get(i)), strict) : querySeries;
+				if (seriesEpisodes == null) {
+					for (SearchResult it : series) {
+						episodeLists.computeIfAbsent(it, s -> {
+							log.fine(format("Fetching episode data for [%s]", s.getName()));
+							return workerThreadPool.submit(() -> db.getEpisodeList(s, sortOrder, locale));
+						});
+					}
 				}
+				seriesByBatch.add(series);
+			}
 
-				// filter episodes
-				episodes = applyExpressionFilter(episodes, filter);
+			// match each batch set as soon as its episode data is available
+			List<Future<List<Match<File, Object>>>> batchMatches = new ArrayList<Future<List<Match<File, Object>>>>(batchSets.size());
+			for (int i = 0; i < batchSets.size(); i++) {
+				List<File> batch = batchSets.get(i);
+				List<Episode> episodes = seriesEpisodes != null ? seriesEpisodes : getEpisodeSet(seriesByBatch.get(i), episodeLists);
+				batchMatches.add(workerThreadPool.submit(() -> matchEpisodeBatch(batch, episodes, filter, strict)));
+			}
 
-				for (List<File> filesPerType : mapByMediaExtension(filter(batch, VIDEO_FILES, SUBTITLE_FILES)).values()) {
-					matches.addAll(matchEpisodes(filesPerType, episodes, strict));
-				}
+			// collect matches in batch set order
+			for (Future<List<Match<File, Object>>> it : batchMatches) {
+				matches.addAll(getResult(it));
 			}
+		} finally {
+			workerThreadPool.shutdownNow();
 		}
 
 		if (matches.isEmpty()) {
@@ -247,8 +298,64 @@ public class CmdlineOperations implements CmdlineInterface {
 		// add matches from other files that are linked via filenames
 		matches.addAll(derivateMatches);
 
-		// rename episodes
-		return renameAll(formatMatches(matches, format, outputDir), renameAction, conflictAction, matches, exec);
+		return matches;
+	}
+
+	private Set<SearchResult> selectSeries(List<File> batch, Map<String, List<SearchResult>> searchResults, boolean strict) throws Exception {
+		Collection<String> seriesNames = searchResults.keySet(); // series names detected by common word sequence
+		log.config("Auto-detected query: " + seriesNames);
+
+		if (seriesNames.size() == 0) {
+			log.warning("Failed to detect query for files: " + batch);
+			return emptySet();
+		}
+
+		if (strict && seriesNames.size() > 1) {
+			throw new CmdlineException("Multiple queries: Processing multiple shows at once requires -non-strict matching: " + seriesNames);
+		}
+
+		return selectSeries(searchResults, strict, 5); // consider episodes of up to N search results for each query
+	}
+
+	private List<Episode> getEpisodeSet(Set<SearchResult> series, Map<SearchResult, Future<List<Episode>>> episodeLists) throws Exception {
+		Set<Episode> episodes = new LinkedHashSet<Episode>();
+
+		for (SearchResult it : series) {
+			try {
+				episodes.addAll(getResult(episodeLists.get(it)));
+			} catch (IOException e) {
+				throw new CmdlineException(String.format("Failed to fetch episode data for [%s]: %s", it, e.getMessage()), e);
+			}
+		}
+
+		if (episodes.isEmpty() && series.size() > 0) {
+			log.warning("Failed to fetch episode data: " + series);
+		}
+
+		return new ArrayList<Episode>(episodes);
+	}
+
+	private static <T> T getResult(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+
+	private List<Match<File, Object>> matchEpisodeBatch(List<File> batch, List<Episode> episodes, ExpressionFilter filter, boolean strict) throws Exception {
+		if (episodes.isEmpty()) {
+			return emptyList();
+		}
+
+		// filter episodes
+		episodes = applyExpressionFilter(episodes, filter);
+
+		List<Match<File, Object>> matches = new ArrayList<Match<File, Object>>();
+		for (List<File> filesPerType : mapByMediaExtension(filter(batch, VIDEO_FILES, SUBTITLE_FILES)).values()) {
+			matches.addAll(matchEpisodes(filesPerType, episodes, strict));
+		}
+		return matches;
 	}
 
 	private List<Match<File, Object>> matchEpisodes(Collection<File> files, Collection<Episode> episodes, boolean strict) throws Exception {
@@ -275,38 +382,36 @@ public class CmdlineOperations implements CmdlineInterface {
 		return validMatches;
 	}
 
-	private List<Episode> fetchEpisodeSet(EpisodeListProvider db, Collection<String> names, SortOrder sortOrder, Locale locale, boolean strict, int limit) throws Exception {
-		Set<SearchResult> shows = new LinkedHashSet<SearchResult>();
-		Set<Episode> episodes = new LinkedHashSet<Episode>();
+	private Map<String, List<SearchResult>> searchSeries(EpisodeListProvider db, Collection<String> names, Locale locale) throws Exception {
+		Map<String, List<SearchResult>> searchResults = new LinkedHashMap<String, List<SearchResult>>();
 
-		// detect series names and create episode list fetch tasks
+		// search each query
 		for (String query : names) {
-			List<SearchResult> results = db.search(query, locale);
+			searchResults.put(query, db.search(query, locale));
+		}
+
+		return searchResults;
+	}
+
+	private Set<SearchResult> selectSeries(Map<String, List<SearchResult>> searchResults, boolean strict, int limit) throws Exception {
+		Set<SearchResult> shows = new LinkedHashSet<SearchResult>();
 
-			// select search result
-			if (results.size() > 0) {
-				List<SearchResult> selectedSearchResults = selectSearchResult(query, results, true, true, strict, limit);
+		// select series for each query
+		for (Entry<String, List<SearchResult>> it : searchResults.entrySet()) {
+			if (it.getValue().size() > 0) {
+				List<SearchResult> selectedSearchResults = selectSearchResult(it.getKey(), it.getValue(), true, true, strict, limit);
 
 				if (selectedSearchResults != null) {
-					for (SearchResult it : selectedSearchResults) {
-						if (shows.add(it)) {
-							try {
-								log.fine(format("Fetching episode data for [%s]", it.getName()));
-								episodes.addAll(db.getEpisodeList(it, sortOrder, locale));
-							} catch (IOException e) {
-								throw new CmdlineException(String.format("Failed to fetch episode data for [%s]: %s", it, e.getMessage()), e);
-							}
-						}
-					}
+					shows.addAll(selectedSearchResults);
 				}
 			}
 		}
 
-		if (episodes.isEmpty()) {
-			log.warning("Failed to fetch episode data: " + names);
+		if (shows.isEmpty()) {
+			log.warning("Failed to fetch episode data: " + searchResults.keySet());
 		}
 
-		return new ArrayList<Episode>(episodes);
+		return shows;
 	}
 
 	public List<File> renameMovie(Collection<File> files, RenameAction renameAction, ConflictAction conflictAction, File outputDir, ExpressionFileFormat format, MovieIdentificationService service, String query, ExpressionFilter filter, Locale locale, boolean strict, ExecCommand exec) throws Exception {
@@ -610,7 +715,7 @@ public class CmdlineOperations implements CmdlineInterface {
 						}
 
 						// do not allow abuse of online databases by repeatedly processing the same files
-						if (matches != null && renameAction.canRevert() && source.length() > 0 && equalsLastModified(source, destination, 2000) && equalsFileContent(source, destination)) {
+						if (matches != null && renameAction.canRevert() && source.length() > 0 && equalsLastModified(source, destination, 2000) && XattrFingerprint.isDuplicate(source, destination)) {
 							throw new CmdlineException(String.format("Failed to process [%s] because [%s] is an exact copy and already exists [Last-Modified: %tc]", source, destination, destination.lastModified()));
 						}
 
@@ -714,56 +819,38 @@ public class CmdlineOperations implements CmdlineInterface {
 		// ignore sample files
 		files = sortByUniquePath(filter(files, not(getClutterFileFilter())));
 
-		// try to find subtitles for each video file
-		List<File> remainingVideos = new ArrayList<File>(files);
-
-		// parallel download
-		List<File> subtitleFiles = new ArrayList<File>();
-
-		log.finest(format("Get [%s] subtitles for %d files", language.getName(), remainingVideos.size()));
-		if (remainingVideos.isEmpty()) {
+		log.finest(format("Get [%s] subtitles for %d files", language.getName(), files.size()));
+		if (files.isEmpty()) {
 			throw new CmdlineException("No video files: " + files);
 		}
 
-		// lookup subtitles by hash
-		for (VideoHashSubtitleService service : getVideoHashSubtitleServices(language.getLocale())) {
-			if (remainingVideos.isEmpty() || !requireLogin(service)) {
-				continue;
-			}
+		// lookup subtitles by hash first and then fall back to lookup by name
+		List<Datasource> services = new ArrayList<Datasource>();
 
-			try {
+		for (VideoHashSubtitleService service : getVideoHashSubtitleServices(language.getLocale())) {
+			if (requireLogin(service)) {
 				log.fine("Looking up subtitles by hash via " + service.getName());
-				Map<File, List<SubtitleDescriptor>> options = lookupSubtitlesByHash(service, remainingVideos, language.getLocale(), false, strict);
-				Map<File, File> downloads = downloadSubtitleBatch(service, options, output, encoding, format);
-				remainingVideos.removeAll(downloads.keySet());
-				subtitleFiles.addAll(downloads.values());
-			} catch (Exception e) {
-				log.warning("Lookup by hash failed: " + e.getMessage());
+				services.add(service);
 			}
 		}
 
 		for (SubtitleProvider service : getSubtitleProviders(language.getLocale())) {
-			if (strict || remainingVideos.isEmpty() || !requireLogin(service)) {
-				continue;
-			}
-
-			try {
+			if (!strict && requireLogin(service)) {
 				log.fine(format("Looking up subtitles by name via %s", service.getName()));
-				Map<File, List<SubtitleDescriptor>> options = findSubtitlesByName(service, remainingVideos, language.getLocale(), query, false, strict);
-				Map<File, File> downloads = downloadSubtitleBatch(service, options, output, encoding, format);
-				remainingVideos.removeAll(downloads.keySet());
-				subtitleFiles.addAll(downloads.values());
-			} catch (Exception e) {
-				log.warning(format("Search by name failed: %s", e.getMessage()));
+				services.add(service);
 			}
 		}
 
+		Map<File, File> downloads = downloadSubtitles(services, files, query, language.getLocale(), output, encoding, format, strict);
+
 		// no subtitles for remaining video files
-		for (File it : remainingVideos) {
-			log.warning("No matching subtitles found: " + it);
+		for (File it : files) {
+			if (!downloads.containsKey(it)) {
+				log.warning("No matching subtitles found: " + it);
+			}
 		}
 
-		return subtitleFiles;
+		return new ArrayList<File>(downloads.values());
 	}
 
 	protected static boolean requireLogin(Object service) {
@@ -823,51 +910,160 @@ public class CmdlineOperations implements CmdlineInterface {
 		return getSubtitles(videoFiles, query, language, output, encoding, format, strict);
 	}
 
-	private Map<File, File> downloadSubtitleBatch(Datasource service, Map<File, List<SubtitleDescriptor>> subtitles, SubtitleFormat outputFormat, Charset outputEncoding, SubtitleNaming naming) {
+	private Map<File, File> downloadSubtitles(List<Datasource> services, Collection<File> videos, String query, Locale locale, SubtitleFormat outputFormat, Charset outputEncoding, SubtitleNaming naming, boolean strict) throws Exception {
 		// flush all memory caches to disk (before starting any long running file system operations that might be cancelled by the user)
 		CacheManager.getInstance().flushAll();
 
 		Map<File, File> downloads = new LinkedHashMap<File, File>();
+		if (services.isEmpty()) {
+			return downloads;
+		}
 
-		// fetch subtitle
-		subtitles.forEach((movie, options) -> {
-			if (options.size() > 0) {
-				SubtitleDescriptor subtitle = options.get(0);
-				try {
-					downloads.put(movie, downloadSubtitle(service, subtitle, movie, outputFormat, outputEncoding, naming));
-				} catch (Exception e) {
-					log.warning(format("Failed to download %s: %s", subtitle, e));
+		// each subtitle service is one stage that looks up all videos passed down to it at once, and then passes each video without subtitles on to the next stage on its own
+		List<BlockingQueue<File>> stages = services.stream().map(s -> new LinkedBlockingQueue<File>()).collect(toList());
+		stages.get(0).addAll(videos);
+
+		Map<File, CompletableFuture<Entry<SubtitleDescriptor, MemoryFile>>> subtitles = new LinkedHashMap<File, CompletableFuture<Entry<SubtitleDescriptor, MemoryFile>>>();
+		videos.forEach(v -> subtitles.put(v, new CompletableFuture<Entry<SubtitleDescriptor, MemoryFile>>()));
+
+		// lookups and downloads wait for the request limits of each subtitle provider on their own threads, and fetched subtitles are decoded and converted on a separate bounded pool
+		ExecutorService fetchThreadPool = Executors.newCachedThreadPool();
+		ExecutorService exportThreadPool = Executors.newFixedThreadPool(Math.max(1, Math.min(videos.size(), getPreferredThreadPoolSize())));
+
+		try {
+			Map<File, Future<ByteBuffer>> export = new ConcurrentHashMap<File, Future<ByteBuffer>>();
+
+			for (int i = 0; i < services.size(); i++) {
+				int stage = i;
+				Datasource service = services.get(i);
+
+				fetchThreadPool.execute(() -> {
+					Semaphore requestLimit = getSubtitleRequestLimit(service);
+					FloodLimit downloadLimit = getSubtitleDownloadLimit(service);
+
+					try {
+						while (true) {
+							// take all videos that have been passed down so far, and skip videos that have been taken care of in the meantime
+							List<File> batch = new ArrayList<File>();
+							batch.add(stages.get(stage).take());
+							stages.get(stage).drainTo(batch);
+							batch.removeIf(v -> subtitles.get(v).isDone());
+
+							if (batch.isEmpty()) {
+								continue;
+							}
+
+							Map<File, List<SubtitleDescriptor>> options = null;
+							requestLimit.acquire();
+							try {
+								options = lookupSubtitles(service, batch, query, locale, strict);
+							} finally {
+								requestLimit.release();
+							}
+
+							for (File video : batch) {
+								List<SubtitleDescriptor> selection = options.getOrDefault(video, emptyList());
+								if (selection.isEmpty()) {
+									fallback(stages, subtitles, stage, video);
+									continue;
+								}
+
+								// acquire permits before handing over the download so that no thread is ever kept waiting on the request limits of the subtitle provider
+								SubtitleDescriptor subtitle = selection.get(0);
+								requestLimit.acquire();
+								try {
+									downloadLimit.acquirePermit();
+								} catch (InterruptedException e) {
+									requestLimit.release();
+									throw e;
+								}
+
+								log.config(format("Fetching [%s] subtitles [%s] from [%s]", subtitle.getLanguageName(), subtitle.getPath(), service.getName()));
+								try {
+									fetchThreadPool.execute(() -> {
+										try {
+											MemoryFile data = fetchSubtitle(subtitle);
+											export.put(video, exportThreadPool.submit(() -> exportSubtitle(data, outputFormat, outputEncoding)));
+											subtitles.get(video).complete(new AbstractMap.SimpleImmutableEntry<SubtitleDescriptor, MemoryFile>(subtitle, data));
+										} catch (Exception e) {
+											log.warning(format("Failed to download %s: %s", subtitle, e));
+											fallback(stages, subtitles, stage, video);
+										} finally {
+											requestLimit.release();
+										}
+									});
+								} catch (RejectedExecutionException e) {
+									requestLimit.release();
+									return;
+								}
+							}
+						}
+					} catch (InterruptedException e) {
+						// all videos have been taken care of
+					}
+				});
+			}
+
+			// write subtitle files in order
+			for (Entry<File, CompletableFuture<Entry<SubtitleDescriptor, MemoryFile>>> it : subtitles.entrySet()) {
+				File video = it.getKey();
+				Entry<SubtitleDescriptor, MemoryFile> subtitle = it.getValue().get();
+				if (subtitle != null) {
+					try {
+						downloads.put(video, writeSubtitle(subtitle.getValue(), export.get(video).get(), subtitle.getKey(), video, outputFormat, naming));
+					} catch (Exception e) {
+						log.warning(format("Failed to download %s: %s", subtitle.getKey(), e instanceof ExecutionException ? e.getCause() : e));
+					}
 				}
 			}
-		});
+		} finally {
+			fetchThreadPool.shutdownNow();
+			exportThreadPool.shutdownNow();
+		}
 
 		return downloads;
 	}
 
-	private File downloadSubtitle(Datasource service, SubtitleDescriptor descriptor, File movieFile, SubtitleFormat outputFormat, Charset outputEncoding, SubtitleNaming naming) throws Exception {
-		// fetch subtitle archive
-		log.config(format("Fetching [%s] subtitles [%s] from [%s]", descriptor.getLanguageName(), descriptor.getPath(), service.getName()));
-		MemoryFile subtitleFile = fetchSubtitle(descriptor);
-
-		// subtitle filename is based on movie filename
-		String extension = getExtension(subtitleFile.getName());
-		ByteBuffer data = subtitleFile.getData();
+	private void fallback(List<BlockingQueue<File>> stages, Map<File, CompletableFuture<Entry<SubtitleDescriptor, MemoryFile>>> subtitles, int stage, File video) {
+		// pass video on to the next subtitle service, or give up if there are no more subtitle services
+		if (stage + 1 < stages.size()) {
+			stages.get(stage + 1).add(video);
+		} else {
+			subtitles.get(video).complete(null);
+		}
+	}
 
-		if (outputFormat != null || outputEncoding != null) {
-			// adjust extension of the output file
-			if (outputFormat != null) {
-				extension = outputFormat.getFilter().extension();
+	private Map<File, List<SubtitleDescriptor>> lookupSubtitles(Datasource service, Collection<File> videos, String query, Locale locale, boolean strict) {
+		try {
+			if (service instanceof VideoHashSubtitleService) {
+				return lookupSubtitlesByHash((VideoHashSubtitleService) service, videos, locale, false, strict);
+			} else {
+				return findSubtitlesByName((SubtitleProvider) service, videos, locale, query, false, strict);
 			}
+		} catch (Exception e) {
+			log.warning(format("Lookup via %s failed: %s", service.getName(), e.getMessage()));
+		}
+		return emptyMap();
+	}
 
-			// default to UTF-8 if no other encoding is given
-			if (outputEncoding == null) {
-				outputEncoding = UTF_8;
-			}
+	private ByteBuffer exportSubtitle(MemoryFile subtitleFile, SubtitleFormat outputFormat, Charset outputEncoding) throws Exception {
+		if (outputFormat == null && outputEncoding == null) {
+			return subtitleFile.getData();
+		}
 
-			log.finest(format("Export [%s] as [%s / %s]", subtitleFile.getName(), outputFormat, outputEncoding));
-			data = exportSubtitles(subtitleFile, outputFormat, 0, outputEncoding);
+		// default to UTF-8 if no other encoding is given
+		if (outputEncoding == null) {
+			outputEncoding = UTF_8;
 		}
 
+		log.finest(format("Export [%s] as [%s / %s]", subtitleFile.getName(), outputFormat, outputEncoding));
+		return exportSubtitles(subtitleFile, outputFormat, 0, outputEncoding);
+	}
+
+	private File writeSubtitle(MemoryFile subtitleFile, ByteBuffer data, SubtitleDescriptor descriptor, File movieFile, SubtitleFormat outputFormat, SubtitleNaming naming) throws Exception {
+		// subtitle filename is based on movie filename and adjusted to the extension of the output format
+		String extension = outputFormat != null ? outputFormat.getFilter().extension() : getExtension(subtitleFile.getName());
+
 		File destination = new File(movieFile.getParentFile(), naming.format(movieFile, descriptor, extension));
 		log.info(format("Writing [%s] to [%s]", subtitleFile.getName(), destination.getName()));
 
@@ -1093,9 +1289,10 @@ public class CmdlineOperations implements CmdlineInterface {
 			return getMediaInfo(files, filter, new ExpressionFormat("{fn} [{resolution} {vc} {channels} {ac} {hours}]"));
 		}
 
-		return files.stream().filter(filter::accept).map(f -> {
+		return applyFileFilter(files, filter).stream().map(f -> {
 			try {
-				return format.format(new MediaBindingBean(xattr.getMetaInfo(f), f));
+				// reuse bindings of the file filter if possible
+				return format.format(filter instanceof ExpressionFileFilter ? ((ExpressionFileFilter) filter).getBindingBean(f) : new MediaBindingBean(xattr.getMetaInfo(f), f));
 			} catch (Exception e) {
 				debug.warning(e::getMessage);
 			}
@@ -1106,7 +1303,7 @@ public class CmdlineOperations implements CmdlineInterface {
 	@Override
 	public boolean execute(Collection<File> files, FileFilter filter, ExecCommand exec) throws Exception {
 		// collect files
-		List<File> f = filter(files, filter);
+		List<File> f = applyFileFilter(files, filter);
 
 		if (f.isEmpty()) {
 			return false;
@@ -1122,6 +1319,14 @@ public class CmdlineOperations implements CmdlineInterface {
 		return true;
 	}
 
+	protected List<File> applyFileFilter(Collection<File> files, FileFilter filter) throws Exception {
+		// evaluate filter expressions in parallel
+		if (filter instanceof ExpressionFileFilter) {
+			return ((ExpressionFileFilter) filter).filter(files);
+		}
+		return filter(files, filter);
+	}
+
 	@Override
 	public List<File> revert(Collection<File> files, FileFilter filter, RenameAction action) throws Exception {
 		if (files.isEmpty()) {
@@ -1129,7 +1334,7 @@ public class CmdlineOperations implements CmdlineInterface {
 		}
 
 		Set<File> whitelist = new HashSet<File>(files);
-		Map<File, File> history = HistorySpooler.getInstance().getCompleteHistory().getRenameMap();
+		Map<File, File> history = HistorySpooler.getInstance().getCompleteHistory(whitelist).getRenameMap();
 
 		return history.entrySet().stream().filter(it -> {
 			File original = it.getKey();
@@ -1157,79 +1362,182 @@ public class CmdlineOperations implements CmdlineInterface {
 		List<File> archiveFiles = filter(files, Archive.VOLUME_ONE_FILTER);
 		List<File> extractedFiles = new ArrayList<File>();
 
-		for (File file : archiveFiles) {
-			Archive archive = Archive.open(file);
-			try {
-				File outputFolder = output;
+		// extract largest archives first
+		List<File> archives = archiveFiles.stream().sorted(comparingLong(File::length).reversed()).collect(toList());
+		List<File> outputFolders = new ArrayList<File>(archives.size());
 
-				if (outputFolder == null || !outputFolder.isAbsolute()) {
-					outputFolder = new File(file.getParentFile(), outputFolder == null ? getName(file) : outputFolder.getPath()).getCanonicalFile();
-				}
+		for (File file : archives) {
+			File outputFolder = output;
 
-				log.info(format("Read archive [%s] and extract to [%s]", file.getName(), outputFolder));
-				FileMapper outputMapper = new FileMapper(outputFolder);
+			if (outputFolder == null || !outputFolder.isAbsolute()) {
+				outputFolder = new File(file.getParentFile(), outputFolder == null ? getName(file) : outputFolder.getPath()).getCanonicalFile();
+			}
 
-				List<FileInfo> outputMapping = new ArrayList<FileInfo>();
-				for (FileInfo it : archive.listFiles()) {
-					File outputPath = outputMapper.getOutputFile(it.toFile());
-					outputMapping.add(new SimpleFileInfo(outputPath.getPath(), it.getLength()));
-				}
+			outputFolders.add(outputFolder);
+		}
+
+		// archives that extract to the same output files depend on each other (i.e. conflict handling) so we extract them one by one
+		int[] group = IntStream.range(0, archives.size()).toArray();
+		Map<File, Integer> archiveByOutputFile = new HashMap<File, Integer>();
 
-				// print warning message if archive appears empty
-				if (outputMapping.isEmpty()) {
-					log.warning(format("[%s] contains [%s] files", file.getName(), outputMapping.size()));
+		for (int i = 0; i < archives.size(); i++) {
+			for (File outputFile : getOutputFiles(archives.get(i), outputFolders.get(i))) {
+				Integer j = archiveByOutputFile.putIfAbsent(outputFile, i);
+				if (j != null) {
+					group[findGroup(group, i)] = findGroup(group, j);
 				}
+			}
+		}
+
+		Map<Integer, List<Integer>> archivesByGroup = new LinkedHashMap<Integer, List<Integer>>();
+		for (int i = 0; i < archives.size(); i++) {
+			archivesByGroup.computeIfAbsent(findGroup(group, i), k -> new ArrayList<Integer>()).add(i);
+		}
+
+		// extract independent archives concurrently (largest archives first) but limit the number of concurrent extractions per output device
+		Map<Object, ExecutorService> deviceThreadPools = new HashMap<Object, ExecutorService>();
+		List<Future<Map<File, List<File>>>> tasks = new ArrayList<Future<Map<File, List<File>>>>();
+
+		try {
+			archivesByGroup.values().forEach(members -> {
+				ExecutorService deviceThreadPool = deviceThreadPools.computeIfAbsent(getFileStore(outputFolders.get(members.get(0))), k -> Executors.newFixedThreadPool(Math.max(1, Archive.getExtractorThreadsPerDevice())));
 
-				Set<FileInfo> selection = new TreeSet<FileInfo>();
-				for (FileInfo future : outputMapping) {
-					if (filter == null || filter.accept(future.toFile())) {
-						selection.add(future);
+				tasks.add(deviceThreadPool.submit(() -> {
+					Map<File, List<File>> extractedFilesByArchive = new HashMap<File, List<File>>();
+					for (int i : members) {
+						extractedFilesByArchive.put(archives.get(i), extract(archives.get(i), outputFolders.get(i), conflict, filter, forceExtractAll));
 					}
-				}
+					return extractedFilesByArchive;
+				}));
+			});
 
-				// check if there is anything to extract at all
-				if (selection.isEmpty()) {
-					continue;
+			Map<File, List<File>> extractedFilesByArchive = new HashMap<File, List<File>>();
+			for (Future<Map<File, List<File>>> future : tasks) {
+				try {
+					extractedFilesByArchive.putAll(future.get());
+				} catch (ExecutionException e) {
+					throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
 				}
+			}
 
-				boolean skip = true;
-				for (FileInfo future : filter == null || forceExtractAll ? outputMapping : selection) {
-					if (conflict == ConflictAction.AUTO) {
-						skip &= (future.toFile().exists() && future.getLength() == future.toFile().length());
-					} else {
-						skip &= (future.toFile().exists());
-					}
+			// collect extracted files in archive order
+			for (File file : archiveFiles) {
+				extractedFiles.addAll(extractedFilesByArchive.get(file));
+			}
+		} finally {
+			deviceThreadPools.values().forEach(ExecutorService::shutdownNow);
+		}
+
+		return extractedFiles;
+	}
+
+	private List<File> getOutputFiles(File file, File outputFolder) {
+		try {
+			Archive archive = Archive.open(file);
+			try {
+				FileMapper outputMapper = new FileMapper(outputFolder);
+				return archive.listFiles().stream().map(it -> outputMapper.getOutputFile(it.toFile())).collect(toList());
+			} finally {
+				archive.close();
+			}
+		} catch (Exception e) {
+			debug.finest(cause(file, e));
+		}
+
+		// archive cannot be read and will fail on extraction as well
+		return emptyList();
+	}
+
+	private static int findGroup(int[] group, int i) {
+		while (group[i] != i) {
+			i = group[i] = group[group[i]];
+		}
+		return i;
+	}
+
+	private List<File> extract(File file, File outputFolder, ConflictAction conflict, FileFilter filter, boolean forceExtractAll) throws Exception {
+		Archive archive = Archive.open(file);
+		List<File> extractedFiles = new ArrayList<File>();
+
+		try {
+			log.info(format("Read archive [%s] and extract to [%s]", file.getName(), outputFolder));
+			FileMapper outputMapper = new FileMapper(outputFolder);
+
+			List<FileInfo> outputMapping = new ArrayList<FileInfo>();
+			for (FileInfo it : archive.listFiles()) {
+				File outputPath = outputMapper.getOutputFile(it.toFile());
+				outputMapping.add(new SimpleFileInfo(outputPath.getPath(), it.getLength()));
+			}
+
+			// print warning message if archive appears empty
+			if (outputMapping.isEmpty()) {
+				log.warning(format("[%s] contains [%s] files", file.getName(), outputMapping.size()));
+			}
+
+			Set<FileInfo> selection = new TreeSet<FileInfo>();
+			for (FileInfo future : outputMapping) {
+				if (filter == null || filter.accept(future.toFile())) {
+					selection.add(future);
 				}
+			}
 
-				if (!skip || conflict == ConflictAction.OVERRIDE) {
-					if (filter == null || forceExtractAll) {
-						log.finest("Extracting files " + outputMapping);
+			// check if there is anything to extract at all
+			if (selection.isEmpty()) {
+				return emptyList();
+			}
 
-						// extract all files
-						archive.extract(outputMapper.getOutputDir());
+			boolean skip = true;
+			for (FileInfo future : filter == null || forceExtractAll ? outputMapping : selection) {
+				if (conflict == ConflictAction.AUTO) {
+					skip &= (future.toFile().exists() && future.getLength() == future.toFile().length());
+				} else {
+					skip &= (future.toFile().exists());
+				}
+			}
 
-						for (FileInfo it : outputMapping) {
-							extractedFiles.add(it.toFile());
-						}
-					} else {
-						log.finest("Extracting files " + selection);
+			if (!skip || conflict == ConflictAction.OVERRIDE) {
+				if (filter == null || forceExtractAll) {
+					log.finest("Extracting files " + outputMapping);
 
-						// extract files selected by the given filter
-						archive.extract(outputMapper.getOutputDir(), outputMapper.newPathFilter(selection));
+					// extract all files
+					archive.extract(outputMapper.getOutputDir());
 
-						for (FileInfo it : selection) {
-							extractedFiles.add(it.toFile());
-						}
+					for (FileInfo it : outputMapping) {
+						extractedFiles.add(it.toFile());
 					}
 				} else {
-					log.finest("Skipped extracting files " + selection);
+					log.finest("Extracting files " + selection);
+
+					// extract files selected by the given filter
+					archive.extract(outputMapper.getOutputDir(), outputMapper.newPathFilter(selection));
+
+					for (FileInfo it : selection) {
+						extractedFiles.add(it.toFile());
+					}
 				}
-			} finally {
-				archive.close();
+			} else {
+				log.finest("Skipped extracting files " + selection);
 			}
+		} finally {
+			archive.close();
 		}
 
 		return extractedFiles;
 	}
 
+	private Object getFileStore(File folder) {
+		// output folder may not exist yet
+		for (Path path = folder.toPath(); path != null; path = path.getParent()) {
+			if (Files.exists(path)) {
+				try {
+					return Files.getFileStore(path);
+				} catch (Exception e) {
+					debug.finest(cause(e));
+				}
+				break;
+			}
+		}
+		return folder.toPath().getRoot();
+	}
+
 }
@@ -3,20 +3,41 @@ package net.filebot.cli;
 import static java.util.stream.Collectors.*;
 import static net.filebot.Logging.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
 import javax.script.ScriptException;
 
 import net.filebot.format.ExpressionFormat;
 import net.filebot.format.MediaBindingBean;
+import net.filebot.util.DefaultThreadFactory;
+import net.filebot.util.SystemProperty;
 
 public class ExecCommand {
 
+	private static final ExecutorService OUTPUT_READER = Executors.newCachedThreadPool(new DefaultThreadFactory("ExecCommandOutput", Thread.NORM_PRIORITY, true));
+
+	// keep at most this much output of each command in memory
+	private static final int OUTPUT_LIMIT = 1024 * 1024;
+
+	// wait at most this long for the output of a command that has already exited
+	private static final long OUTPUT_GRACE_PERIOD = 2000;
+
 	private List<ExpressionFormat> template;
 	private boolean parallel;
 
@@ -42,9 +63,42 @@ public class ExecCommand {
 			return template.stream().map(t -> getArgumentValue(t, v)).filter(Objects::nonNull).collect(toList());
 		}).distinct().collect(toList());
 
-		// execute unique commands
-		for (List<String> command : commands) {
-			execute(command);
+		if (commands.size() <= 1 || getThreadPoolSize() <= 1) {
+			for (List<String> command : commands) {
+				execute(command, false);
+			}
+			return;
+		}
+
+		// execute unique commands on a bounded number of concurrent processes
+		ExecutorService workerThreadPool = Executors.newFixedThreadPool(Math.max(1, Math.min(commands.size(), getThreadPoolSize())));
+		List<Exception> failures = new ArrayList<Exception>();
+
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(commands.size());
+			for (List<String> command : commands) {
+				futures.add(workerThreadPool.submit(() -> {
+					execute(command, true);
+					return null;
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					failures.add(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+				}
+			}
+		} finally {
+			workerThreadPool.shutdownNow();
+		}
+
+		// report all failed commands at once
+		if (failures.size() > 0) {
+			IOException e = new IOException(String.format("%d of %d commands failed: %s", failures.size(), commands.size(), failures.stream().map(Exception::getMessage).collect(joining("; "))));
+			failures.forEach(e::addSuppressed);
+			throw e;
 		}
 	}
 
@@ -55,7 +109,7 @@ public class ExecCommand {
 		}).collect(toList());
 
 		// execute single command
-		execute(command);
+		execute(command, false);
 	}
 
 	private String getArgumentValue(ExpressionFormat template, MediaBindingBean variables) {
@@ -67,19 +121,102 @@ public class ExecCommand {
 		return null;
 	}
 
-	private void execute(List<String> command) throws IOException, InterruptedException {
+	private void execute(List<String> command, boolean capture) throws IOException, InterruptedException {
 		ProcessBuilder process = new ProcessBuilder(command);
 		process.directory(directory);
-		process.inheritIO();
+
+		if (capture) {
+			// capture standard output and standard error of each command so that the output of concurrent commands is not interleaved
+			process.redirectInput(Redirect.INHERIT);
+			process.redirectErrorStream(true);
+		} else {
+			// pass through output as it comes (e.g. progress) if commands are executed one by one
+			process.inheritIO();
+		}
 
 		debug.finest(format("Execute %s", command));
 
-		int exitCode = process.start().waitFor();
+		Process p = process.start();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Future<Long> reader = capture ? OUTPUT_READER.submit(() -> readOutput(p.getInputStream(), output, OUTPUT_LIMIT)) : null;
+
+		try {
+			Duration timeout = getTimeout();
+			if (timeout == null) {
+				p.waitFor();
+			} else if (!p.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				throw new IOException(String.format("%s timed out after %s", command, timeout));
+			}
+		} finally {
+			// kill the process if it has timed out or if we have been interrupted
+			if (p.isAlive()) {
+				p.destroyForcibly();
+				if (reader != null) {
+					reader.cancel(true);
+				}
+			}
+		}
+
+		if (reader != null) {
+			logOutput(command, p, reader, output);
+		}
+
+		int exitCode = p.exitValue();
 		if (exitCode != 0) {
 			throw new IOException(String.format("%s failed with exit code %d", command, exitCode));
 		}
 	}
 
+	private void logOutput(List<String> command, Process process, Future<Long> reader, ByteArrayOutputStream output) throws InterruptedException {
+		long size = 0;
+
+		try {
+			// background processes may inherit the output stream and keep it open long after the command itself has exited
+			size = reader.get(OUTPUT_GRACE_PERIOD, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			debug.finest(format("%s has exited but its output stream is still open", command));
+			reader.cancel(true);
+			try {
+				process.getInputStream().close();
+			} catch (IOException c) {
+				debug.finest(cause(command, c));
+			}
+		} catch (ExecutionException e) {
+			debug.warning(cause(command, e.getCause()));
+		}
+
+		String text = new String(output.toByteArray(), Charset.defaultCharset()).trim();
+		if (size > OUTPUT_LIMIT) {
+			text = String.format("%s%n[%,d bytes omitted]", text, size - OUTPUT_LIMIT);
+		}
+
+		if (text.length() > 0) {
+			log.info(text);
+		}
+	}
+
+	private static long readOutput(InputStream in, ByteArrayOutputStream buffer, int limit) throws IOException {
+		long size = 0;
+
+		// keep reading until the end of the stream so that the process is never blocked on a full pipe
+		byte[] b = new byte[8192];
+		for (int n = 0; (n = in.read(b)) >= 0; size += n) {
+			buffer.write(b, 0, (int) Math.max(0, Math.min(n, limit - size)));
+		}
+
+		return size;
+	}
+
+	public static int getThreadPoolSize() {
+		// commands are executed one by one unless explicitly configured otherwise
+		return SystemProperty.of("net.filebot.exec.threads", Integer::parseInt, 1).get();
+	}
+
+	public static Duration getTimeout() {
+		return SystemProperty.of("net.filebot.exec.timeout", Duration::parse).get();
+	}
+
 	public static ExecCommand parse(List<String> args, File directory) throws ScriptException {
 		// execute one command per file or one command with many file arguments
 		boolean parallel = args.lastIndexOf("+") == args.size() - 1;
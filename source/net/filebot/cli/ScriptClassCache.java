@@ -0,0 +1,268 @@
+package net.filebot.cli;
+
+import static java.nio.charset.StandardCharsets.*;
+import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
+import static net.filebot.util.FileUtilities.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.SourceUnit;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovySystem;
+
+/**
+ * Persistent cache for compiled script classes, keyed by script text and compiler configuration.
+ */
+public class ScriptClassCache {
+
+	private static final int MAGIC = 0x46425343;
+
+	// remove compiled scripts that have not been used in a while
+	private static final long EXPIRATION = TimeUnit.DAYS.toMillis(30);
+
+	private final File folder;
+	private final String salt;
+
+	public ScriptClassCache(File folder, String salt) {
+		this.folder = folder;
+		this.salt = salt + "\n" + GroovySystem.getVersion();
+
+		initialize();
+	}
+
+	private void initialize() {
+		try {
+			createFolders(folder);
+
+			File revisionFile = new File(folder, ".revision");
+			String applicationRevision = String.valueOf(getApplicationRevisionNumber());
+			String cacheRevision = revisionFile.exists() ? new String(Files.readAllBytes(revisionFile.toPath()), UTF_8) : null;
+
+			// compiled classes are only valid for the application revision they have been compiled against
+			if (!applicationRevision.equals(cacheRevision)) {
+				if (cacheRevision != null) {
+					debug.fine(format("Current application revision (r%s) does not match script cache revision (r%s): reset script cache", applicationRevision, cacheRevision));
+				}
+
+				getChildren(folder, FILES).stream().filter(f -> !f.getName().startsWith(".")).forEach(File::delete);
+				Files.write(revisionFile.toPath(), applicationRevision.getBytes(UTF_8));
+			} else {
+				long now = System.currentTimeMillis();
+				getChildren(folder, FILES).stream().filter(f -> !f.getName().startsWith(".") && now - f.lastModified() > EXPIRATION).forEach(File::delete);
+			}
+		} catch (Exception e) {
+			debug.log(Level.WARNING, "Failed to initialize script cache", e);
+		}
+	}
+
+	public String getKey(String scriptText) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(salt.getBytes(UTF_8));
+			digest.update(scriptText.getBytes(UTF_8));
+			return String.format("%064x", new BigInteger(1, digest.digest()));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public CompiledClasses get(String key) {
+		File file = new File(folder, key);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Bad header");
+			}
+
+			String main = in.readUTF();
+			int n = in.readInt();
+
+			Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>(n);
+			for (int i = 0; i < n; i++) {
+				String name = in.readUTF();
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				classes.put(name, bytes);
+			}
+
+			// keep recently used scripts from expiring
+			file.setLastModified(System.currentTimeMillis());
+
+			return new CompiledClasses(main, classes);
+		} catch (Exception e) {
+			debug.log(Level.WARNING, "Failed to read compiled script: " + file, e);
+		}
+		return null;
+	}
+
+	public void put(String key, CompiledClasses compilation) {
+		try {
+			// write to temporary file and then move into place so that other processes never see incomplete files
+			File file = new File(folder, key);
+			File part = File.createTempFile("." + key, ".part", folder);
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(part)))) {
+				out.writeInt(MAGIC);
+				out.writeUTF(compilation.main);
+				out.writeInt(compilation.classes.size());
+
+				for (Map.Entry<String, byte[]> it : compilation.classes.entrySet()) {
+					out.writeUTF(it.getKey());
+					out.writeInt(it.getValue().length);
+					out.write(it.getValue());
+				}
+			}
+
+			Files.move(part.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception e) {
+			debug.log(Level.WARNING, "Failed to write compiled script: " + key, e);
+		}
+	}
+
+	public GroovyClassLoader createClassLoader(ClassLoader parent, CompilerConfiguration config) {
+		return new CachingClassLoader(parent, config, this);
+	}
+
+	public static class CompiledClasses {
+
+		public final String main;
+		public final Map<String, byte[]> classes;
+
+		public CompiledClasses(String main, Map<String, byte[]> classes) {
+			this.main = main;
+			this.classes = classes;
+		}
+	}
+
+	/**
+	 * Script class loader that loads previously compiled scripts from the persistent cache and stores newly compiled scripts in the persistent cache.
+	 */
+	private static class CachingClassLoader extends GroovyClassLoader {
+
+		private final ScriptClassCache cache;
+
+		private final ThreadLocal<Map<String, byte[]>> compilation = new ThreadLocal<Map<String, byte[]>>();
+
+		public CachingClassLoader(ClassLoader parent, CompilerConfiguration config, ScriptClassCache cache) {
+			super(parent, config);
+			this.cache = cache;
+		}
+
+		@Override
+		public Class<?> parseClass(GroovyCodeSource codeSource, boolean shouldCacheSource) {
+			String scriptText = codeSource.getScriptText();
+			if (scriptText == null) {
+				return super.parseClass(codeSource, shouldCacheSource);
+			}
+
+			String key = cache.getKey(scriptText);
+			CompiledClasses cached = cache.get(key);
+
+			if (cached != null) {
+				try {
+					return new CompiledClassLoader(this, cached.classes).loadClass(cached.main);
+				} catch (Throwable e) {
+					debug.log(Level.WARNING, "Failed to load compiled script: " + key, e);
+				}
+			}
+
+			// compile script and collect class files
+			Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+			compilation.set(classes);
+
+			try {
+				Class<?> scriptClass = super.parseClass(codeSource, shouldCacheSource);
+
+				// classes may have been loaded from the in-memory source cache without being compiled
+				if (classes.containsKey(scriptClass.getName())) {
+					cache.put(key, new CompiledClasses(scriptClass.getName(), classes));
+				}
+				return scriptClass;
+			} finally {
+				compilation.remove();
+			}
+		}
+
+		@Override
+		protected ClassCollector createCollector(CompilationUnit unit, SourceUnit su) {
+			Map<String, byte[]> classes = compilation.get();
+			if (classes == null) {
+				return super.createCollector(unit, su);
+			}
+
+			return new ClassCollector(new InnerLoader(this), unit, su) {
+
+				@Override
+				protected Class<?> createClass(byte[] code, ClassNode classNode) {
+					classes.put(classNode.getName(), code);
+					return super.createClass(code, classNode);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Dedicated class loader for the class files of a single compiled script.
+	 */
+	private static class CompiledClassLoader extends ClassLoader {
+
+		private final Map<String, byte[]> classes;
+
+		public CompiledClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+			super(parent);
+			this.classes = classes;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			// script classes take precedence over classes with the same name in the parent class loader
+			if (classes.containsKey(name)) {
+				synchronized (getClassLoadingLock(name)) {
+					Class<?> c = findLoadedClass(name);
+					if (c == null) {
+						c = findClass(name);
+					}
+					if (resolve) {
+						resolveClass(c);
+					}
+					return c;
+				}
+			}
+			return super.loadClass(name, resolve);
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = classes.get(name);
+			if (bytes == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+}
@@ -17,6 +17,8 @@ import org.codehaus.groovy.runtime.StackTraceUtils;
 
 import groovy.lang.GroovyClassLoader;
 
+import net.filebot.ApplicationFolder;
+
 public class ScriptShell {
 
 	public static ScriptEngine createScriptEngine() {
@@ -31,10 +33,21 @@ public class ScriptShell {
 		imports.addStaticStars(COMMA.split(bundle.getString("starStaticImport")));
 		config.addCompilationCustomizers(imports);
 
-		GroovyClassLoader classLoader = new GroovyClassLoader(Thread.currentThread().getContextClassLoader(), config);
+		GroovyClassLoader classLoader = ScriptClassCacheHolder.cache.createClassLoader(Thread.currentThread().getContextClassLoader(), config);
 		return new GroovyScriptEngineImpl(classLoader);
 	}
 
+	private static class ScriptClassCacheHolder {
+
+		// compiled script classes are cached on disk and only depend on the script text and compiler configuration
+		private static final ScriptClassCache cache = createScriptClassCache();
+
+		private static ScriptClassCache createScriptClassCache() {
+			ResourceBundle bundle = ResourceBundle.getBundle(ScriptShell.class.getName());
+			return new ScriptClassCache(ApplicationFolder.Cache.resolve("scripts"), String.join("\n", bundle.getString("scriptBaseClass"), bundle.getString("starImport"), bundle.getString("starStaticImport")));
+		}
+	}
+
 	public static final String ARGV_BINDING_NAME = "args";
 	public static final String SHELL_BINDING_NAME = "__shell";
 	public static final String SHELL_CLI_BINDING_NAME = "__cli";
@@ -196,7 +196,7 @@ public abstract class ScriptShellBaseClass extends Script {
 
 	// define global variable: _environment
 	public AssociativeScriptObject get_environment() {
-		return new AssociativeScriptObject(System.getenv(), property -> null);
+		return new AssociativeScriptObject(CmdlineDaemon.getEnvironment(), property -> null);
 	}
 
 	// Complete or session rename history
@@ -208,6 +208,14 @@ public abstract class ScriptShellBaseClass extends Script {
 		return HistorySpooler.getInstance().getCompleteHistory().getRenameMap();
 	}
 
+	public Map<File, File> getPersistentRenameLog(Object files) throws IOException {
+		return HistorySpooler.getInstance().getCompleteHistory(asFileList(files)).getRenameMap();
+	}
+
+	public Map<File, File> getPersistentRenameLog(Date since) throws IOException {
+		return HistorySpooler.getInstance().getCompleteHistory(since).getRenameMap();
+	}
+
 	public Map<File, File> getRenameLog(boolean complete) throws IOException {
 		if (complete) {
 			return HistorySpooler.getInstance().getCompleteHistory().getRenameMap();
@@ -223,6 +231,12 @@ public abstract class ScriptShellBaseClass extends Script {
 
 	// define global variable: console
 	public Object getConsole() {
+		// commands sent by daemon clients use the standard streams of the client
+		PseudoConsole console = CmdlineDaemon.getConsole();
+		if (console != null) {
+			return console;
+		}
+
 		return System.console() != null ? System.console() : PseudoConsole.getSystemConsole();
 	}
 
@@ -316,7 +330,8 @@ public abstract class ScriptShellBaseClass extends Script {
 			cmd = Stream.concat(Stream.of("sh", "-c"), cmd);
 		}
 
-		ProcessBuilder process = new ProcessBuilder(cmd.collect(toList())).inheritIO();
+		// commands sent by daemon clients run in the working directory of the client
+		ProcessBuilder process = new ProcessBuilder(cmd.collect(toList())).directory(CmdlineDaemon.getWorkingDirectory()).inheritIO();
 		return process.start().waitFor();
 	}
 
@@ -1,13 +1,18 @@
 package net.filebot.format;
 
+import static java.lang.invoke.MethodType.*;
+import static java.util.Collections.*;
 import static net.filebot.util.ExceptionUtilities.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.util.AbstractMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.script.Bindings;
 
@@ -15,30 +20,13 @@ public class ExpressionBindings extends AbstractMap<String, Object> implements B
 
 	protected final Object bindingBean;
 
-	protected final Map<String, Method> bindings = new TreeMap<String, Method>(String.CASE_INSENSITIVE_ORDER);
+	protected final Accessors bindings;
 
-	protected final Method undefined;
+	protected final Map<Object, Object> values = new ConcurrentHashMap<Object, Object>();
 
 	public ExpressionBindings(Object bindingBean) {
 		this.bindingBean = bindingBean;
-
-		// get method bindings
-		for (Method method : bindingBean.getClass().getMethods()) {
-			Define define = method.getAnnotation(Define.class);
-
-			if (define != null) {
-				for (String name : define.value()) {
-					Method existingBinding = bindings.put(name, method);
-
-					if (existingBinding != null) {
-						throw new IllegalArgumentException(String.format("Illegal binding {%s} on %s", name, method.getName()));
-					}
-				}
-			}
-		}
-
-		// extract mapping that handles undefined bindings
-		undefined = bindings.remove(Define.undefined);
+		this.bindings = accessors.get(bindingBean.getClass());
 	}
 
 	protected boolean isUndefined(Object value) {
@@ -51,22 +39,33 @@ public class ExpressionBindings extends AbstractMap<String, Object> implements B
 
 	@Override
 	public Object get(Object key) {
-		Method method = bindings.get(key);
+		// binding values are memoized per binding bean
+		Object value = values.get(key);
+
+		if (value == null) {
+			value = evaluate(key);
+			values.put(key, value == null ? UNDEFINED : value);
+			return value;
+		}
+
+		return value == UNDEFINED ? null : value;
+	}
+
+	protected Object evaluate(Object key) {
+		MethodHandle method = bindings.get(key);
 
 		if (method != null) {
 			try {
-				Object value = method.invoke(bindingBean);
+				Object value = method.invokeExact(bindingBean);
 				if (!isUndefined(value)) {
 					return value;
 				}
-				if (undefined != null) {
-					return undefined.invoke(bindingBean, key); // invoke fallback method
-				}
-			} catch (Exception e) {
-				// check InvocationTargetException cause
-				if (e.getCause() instanceof BindingException) {
-					throw (BindingException) e.getCause();
+				if (bindings.undefined != null) {
+					return bindings.undefined.invokeExact(bindingBean, key); // invoke fallback method
 				}
+			} catch (BindingException e) {
+				throw e;
+			} catch (Throwable e) {
 				throw new BindingException(key, getRootCauseMessage(e), e);
 			}
 		}
@@ -92,7 +91,7 @@ public class ExpressionBindings extends AbstractMap<String, Object> implements B
 
 	@Override
 	public Set<String> keySet() {
-		return bindings.keySet();
+		return unmodifiableSet(bindings.keySet());
 	}
 
 	@Override
@@ -127,4 +126,78 @@ public class ExpressionBindings extends AbstractMap<String, Object> implements B
 		return entrySet;
 	}
 
+	private static final Object UNDEFINED = new Object();
+
+	private static final ClassValue<Accessors> accessors = new ClassValue<Accessors>() {
+
+		@Override
+		protected Accessors computeValue(Class<?> type) {
+			return new Accessors(type);
+		}
+	};
+
+	/**
+	 * Method handles for all {@link Define} methods of a binding bean class, resolved once per class.
+	 */
+	protected static class Accessors {
+
+		private final Map<String, MethodHandle> handles = new TreeMap<String, MethodHandle>(String.CASE_INSENSITIVE_ORDER);
+
+		public final MethodHandle undefined;
+
+		public Accessors(Class<?> type) {
+			Map<String, Method> methods = new TreeMap<String, Method>(String.CASE_INSENSITIVE_ORDER);
+
+			// get method bindings
+			for (Method method : type.getMethods()) {
+				Define define = method.getAnnotation(Define.class);
+
+				if (define != null) {
+					for (String name : define.value()) {
+						Method existingBinding = methods.put(name, method);
+
+						if (existingBinding != null) {
+							throw new IllegalArgumentException(String.format("Illegal binding {%s} on %s", name, method.getName()));
+						}
+					}
+				}
+			}
+
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+				for (Entry<String, Method> it : methods.entrySet()) {
+					MethodHandle handle = lookup.unreflect(it.getValue());
+
+					// extract mapping that handles undefined bindings
+					if (it.getKey().equals(Define.undefined)) {
+						continue;
+					}
+					handles.put(it.getKey(), handle.asType(methodType(Object.class, Object.class)));
+				}
+
+				Method undefinedMethod = methods.get(Define.undefined);
+				undefined = undefinedMethod == null ? null : lookup.unreflect(undefinedMethod).asType(methodType(Object.class, Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+
+		public MethodHandle get(Object key) {
+			return handles.get(key);
+		}
+
+		public boolean containsKey(Object key) {
+			return handles.containsKey(key);
+		}
+
+		public Set<String> keySet() {
+			return handles.keySet();
+		}
+
+		public boolean isEmpty() {
+			return handles.isEmpty();
+		}
+	}
+
 }
@@ -1,18 +1,35 @@
 package net.filebot.format;
 
 import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.script.ScriptException;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.filebot.util.FileUtilities;
+
 public class ExpressionFileFilter implements FileFilter {
 
 	private ExpressionFilter filter;
 	private Function<File, Object> match;
 
+	// keep bindings so that subsequent format expressions for the same file do not need to read media properties again
+	private final Cache<File, MediaBindingBean> bindings = Caffeine.newBuilder().maximumSize(10000).expireAfterAccess(5, TimeUnit.MINUTES).build();
+
 	public ExpressionFileFilter(String expression) throws ScriptException {
 		// use file object as match object by default
 		this(expression, f -> f);
@@ -27,14 +44,47 @@ public class ExpressionFileFilter implements FileFilter {
 		return filter;
 	}
 
+	public MediaBindingBean getBindingBean(File f) {
+		return bindings.get(f, k -> new MediaBindingBean(match.apply(k), k));
+	}
+
 	@Override
 	public boolean accept(File f) {
 		try {
-			return filter.matches(new MediaBindingBean(match.apply(f), f));
+			return filter.matches(getBindingBean(f));
 		} catch (Exception e) {
 			debug.warning("Filter expression failed: " + e);
 		}
 		return false;
 	}
 
+	public List<File> filter(Collection<File> files) throws Exception {
+		if (files.size() <= 1) {
+			return FileUtilities.filter(files, this);
+		}
+
+		// evaluate filter expression for all files in parallel (e.g. expressions that require media properties)
+		ExecutorService workerThreadPool = Executors.newFixedThreadPool(Math.min(files.size(), getPreferredThreadPoolSize()));
+
+		try {
+			List<Future<Boolean>> accept = new ArrayList<Future<Boolean>>(files.size());
+			for (File f : files) {
+				accept.add(workerThreadPool.submit(() -> accept(f)));
+			}
+
+			List<File> accepted = new ArrayList<File>();
+			int i = 0;
+			for (File f : files) {
+				if (accept.get(i++).get()) {
+					accepted.add(f);
+				}
+			}
+			return accepted;
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		} finally {
+			workerThreadPool.shutdownNow();
+		}
+	}
+
 }
@@ -1,5 +1,6 @@
 package net.filebot.format;
 
+import static net.filebot.Logging.*;
 import static net.filebot.util.ExceptionUtilities.*;
 
 import java.security.AccessController;
@@ -7,9 +8,8 @@ import java.text.FieldPosition;
 import java.text.Format;
 import java.text.ParsePosition;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 
 import javax.lang.model.SourceVersion;
@@ -19,13 +19,15 @@ import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
-import javax.script.SimpleScriptContext;
 
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.MultipleCompilationErrorsException;
 import org.codehaus.groovy.control.customizers.ImportCustomizer;
 import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyRuntimeException;
 import groovy.lang.MissingPropertyException;
@@ -36,8 +38,6 @@ public class ExpressionFormat extends Format {
 
 	private final Object[] compilation;
 
-	private SuppressedThrowables suppressed;
-
 	public ExpressionFormat(String expression) throws ScriptException {
 		this.expression = expression;
 		this.compilation = secure(compile(expression));
@@ -74,23 +74,8 @@ public class ExpressionFormat extends Format {
 			} else if (c == close) {
 				if (level == 1) {
 					if (token.length() > 0) {
-						try {
-							compilation.add(compileScriptlet(token.toString()));
-						} catch (ScriptException e) {
-							// try to extract syntax exception
-							ScriptException illegalSyntax = e;
-
-							try {
-								String message = findCause(e, MultipleCompilationErrorsException.class).getErrorCollector().getSyntaxError(0).getOriginalMessage();
-								illegalSyntax = new ScriptException("SyntaxError: " + message);
-							} catch (Exception ignore) {
-								// ignore, just use original exception
-							}
-
-							throw illegalSyntax;
-						} finally {
-							token.setLength(0);
-						}
+						compilation.add(new StringBuilder(token));
+						token.setLength(0);
 					}
 				} else {
 					token.append(c);
@@ -117,7 +102,62 @@ public class ExpressionFormat extends Format {
 			compilation.add(token.toString());
 		}
 
-		return compilation.toArray();
+		return compileScriptlets(compilation.toArray());
+	}
+
+	protected Object[] compileScriptlets(Object[] compilation) throws ScriptException {
+		List<String> scriptlets = new ArrayList<String>();
+
+		for (int i = 0; i < compilation.length; i++) {
+			if (compilation[i] instanceof StringBuilder) {
+				String scriptlet = compilation[i].toString();
+
+				// simple expressions like {n} don't need to be interpreted by the script engine
+				if (isVariable(scriptlet)) {
+					compilation[i] = new Variable(scriptlet);
+				} else {
+					scriptlets.add(scriptlet);
+				}
+			}
+		}
+
+		// compile all scriptlets into a single template class
+		ExpressionTemplate template = null;
+
+		if (scriptlets.size() > 0) {
+			try {
+				template = compileTemplate(scriptlets);
+			} catch (ScriptException e) {
+				debug.finest(() -> "Compile scriptlets separately: " + e.getMessage());
+			}
+		}
+
+		for (int i = 0, n = 0; i < compilation.length; i++) {
+			if (compilation[i] instanceof StringBuilder) {
+				compilation[i] = template != null ? template.getScriptlet(n++) : compileIllegalSyntax(compilation[i].toString());
+			}
+		}
+
+		return compilation;
+	}
+
+	private CompiledScript compileIllegalSyntax(String expression) throws ScriptException {
+		// scriptlets that cannot be compiled as part of a template (e.g. method definitions) are compiled as separate scripts
+		try {
+			return compileScriptlet(expression);
+		} catch (ScriptException e) {
+			// try to extract syntax exception
+			ScriptException illegalSyntax = e;
+
+			try {
+				String message = findCause(e, MultipleCompilationErrorsException.class).getErrorCollector().getSyntaxError(0).getOriginalMessage();
+				illegalSyntax = new ScriptException("SyntaxError: " + message);
+			} catch (Exception ignore) {
+				// ignore, just use original exception
+			}
+
+			throw illegalSyntax;
+		}
 	}
 
 	public Bindings getBindings(Object value) {
@@ -130,14 +170,18 @@ public class ExpressionFormat extends Format {
 	}
 
 	public String format(Bindings bindings) {
-		// use privileged bindings so we are not restricted by the script sandbox
-		Bindings priviledgedBindings = PrivilegedInvocation.newProxy(Bindings.class, bindings, AccessController.getContext());
+		return evaluate(bindings).getValue();
+	}
+
+	public Result evaluate(Object object) {
+		return evaluate(getBindings(object));
+	}
 
-		// initialize script context with the privileged bindings
-		ScriptContext context = new SimpleScriptContext();
-		context.setBindings(priviledgedBindings, ScriptContext.GLOBAL_SCOPE);
+	public Result evaluate(Bindings bindings) {
+		// initialize script context with privileged bindings so we are not restricted by the script sandbox
+		ScriptContext context = new ExpressionTemplate.Context(bindings, AccessController.getContext());
 
-		// reset exception state
+		// collect exceptions for this evaluation only
 		List<Throwable> suppressed = new ArrayList<Throwable>();
 
 		StringBuilder sb = new StringBuilder();
@@ -163,14 +207,7 @@ public class ExpressionFormat extends Format {
 			throw new SuppressedThrowables("Expression yields empty value", suppressed);
 		}
 
-		// store for later (not thread-safe)
-		this.suppressed = suppressed.isEmpty() ? null : new SuppressedThrowables("Suppressed", suppressed);
-
-		return value;
-	}
-
-	public SuppressedThrowables suppressed() {
-		return suppressed;
+		return new Result(value, suppressed.isEmpty() ? null : new SuppressedThrowables("Suppressed", suppressed));
 	}
 
 	protected Object normalizeBindingValue(Object value) {
@@ -236,28 +273,81 @@ public class ExpressionFormat extends Format {
 		return new GroovyScriptEngineImpl(classLoader);
 	}
 
-	private static Compilable engine;
-	private static Map<String, CompiledScript> scriptletCache = new HashMap<String, CompiledScript>();
+	private static final int SCRIPTLET_CACHE_SIZE = 2000;
+	private static final int TEMPLATE_CACHE_SIZE = 500;
+
+	private static final Cache<String, CompiledScript> scriptletCache = Caffeine.newBuilder().maximumSize(SCRIPTLET_CACHE_SIZE).build();
+	private static final Cache<List<String>, ExpressionTemplate> templateCache = Caffeine.newBuilder().maximumSize(TEMPLATE_CACHE_SIZE).build();
+
+	private static class ScriptEngineHolder {
+
+		// lazy initialize script engine
+		private static final Compilable engine = createScriptEngine();
+	}
+
+	protected static boolean isVariable(String expression) {
+		return SourceVersion.isIdentifier(expression) && !SourceVersion.isKeyword(expression);
+	}
 
 	protected static CompiledScript compileScriptlet(String expression) throws ScriptException {
 		// simple expressions like {n} don't need to be interpreted by the script engine
-		if (SourceVersion.isIdentifier(expression) && !SourceVersion.isKeyword(expression)) {
+		if (isVariable(expression)) {
 			return new Variable(expression);
 		}
 
-		synchronized (scriptletCache) {
-			CompiledScript scriptlet = scriptletCache.get(expression);
-			if (scriptlet == null) {
-				// lazy initialize script engine
-				if (engine == null) {
-					engine = createScriptEngine();
+		// compile and cache script (concurrent requests for the same expression will wait for the same compilation)
+		return compileOnce(scriptletCache, expression, ScriptEngineHolder.engine::compile);
+	}
+
+	protected static ExpressionTemplate compileTemplate(List<String> scriptlets) throws ScriptException {
+		// compile and cache template class
+		return compileOnce(templateCache, new ArrayList<String>(scriptlets), key -> ExpressionTemplate.compile(key, (GroovyScriptEngineImpl) ScriptEngineHolder.engine));
+	}
+
+	private static <K, V> V compileOnce(Cache<K, V> cache, K key, ScriptCompiler<K, V> compiler) throws ScriptException {
+		try {
+			return cache.get(key, k -> {
+				try {
+					return compiler.compile(k);
+				} catch (ScriptException e) {
+					throw new CompletionException(e);
 				}
+			});
+		} catch (CompletionException e) {
+			throw (ScriptException) e.getCause();
+		}
+	}
 
-				// compile and cache script
-				scriptlet = engine.compile(expression);
-				scriptletCache.put(expression, scriptlet);
-			}
-			return scriptlet;
+	@FunctionalInterface
+	private interface ScriptCompiler<K, V> {
+
+		V compile(K key) throws ScriptException;
+	}
+
+	/**
+	 * Immutable result of a single expression evaluation.
+	 */
+	public static class Result {
+
+		private final String value;
+		private final SuppressedThrowables suppressed;
+
+		public Result(String value, SuppressedThrowables suppressed) {
+			this.value = value;
+			this.suppressed = suppressed;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public SuppressedThrowables getSuppressed() {
+			return suppressed;
+		}
+
+		@Override
+		public String toString() {
+			return value;
 		}
 	}
 
@@ -0,0 +1,213 @@
+package net.filebot.format;
+
+import static java.util.Collections.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+
+import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
+
+import groovy.lang.Binding;
+import groovy.lang.MissingPropertyException;
+import groovy.lang.Script;
+
+/**
+ * All scriptlets of an expression format compiled into a single script class with one method per scriptlet.
+ */
+public class ExpressionTemplate {
+
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	private final GroovyScriptEngineImpl engine;
+
+	private final Constructor<?> constructor;
+	private final Method[] methods;
+
+	public ExpressionTemplate(GroovyScriptEngineImpl engine, Class<?> scriptClass, int size) throws ReflectiveOperationException {
+		this.engine = engine;
+		this.constructor = scriptClass.getConstructor();
+		this.methods = new Method[size];
+
+		for (int i = 0; i < size; i++) {
+			methods[i] = scriptClass.getMethod(getMethodName(i));
+		}
+	}
+
+	public int size() {
+		return methods.length;
+	}
+
+	public CompiledScript getScriptlet(int index) {
+		return new Scriptlet(this, index);
+	}
+
+	protected Script newInstance(Binding binding) throws ScriptException {
+		try {
+			Script script = (Script) constructor.newInstance();
+			script.setBinding(binding);
+			return script;
+		} catch (ReflectiveOperationException e) {
+			throw new ScriptException(e);
+		}
+	}
+
+	protected Object eval(Script script, int index) throws ScriptException {
+		try {
+			return methods[index].invoke(script);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw new ScriptException((Exception) cause);
+			}
+			throw new ScriptException(new ExecutionException(cause));
+		} catch (IllegalAccessException e) {
+			throw new ScriptException(e);
+		}
+	}
+
+	public static ExpressionTemplate compile(List<String> scriptlets, GroovyScriptEngineImpl engine) throws ScriptException {
+		StringBuilder source = new StringBuilder();
+
+		for (int i = 0; i < scriptlets.size(); i++) {
+			source.append("def ").append(getMethodName(i)).append("() {\n").append(scriptlets.get(i)).append("\n}\n\n");
+		}
+
+		try {
+			Class<?> scriptClass = engine.getClassLoader().parseClass(source.toString(), "Template" + counter.incrementAndGet() + ".groovy");
+			return new ExpressionTemplate(engine, scriptClass, scriptlets.size());
+		} catch (Exception e) {
+			throw new ScriptException(e);
+		}
+	}
+
+	private static String getMethodName(int index) {
+		return "scriptlet$" + index;
+	}
+
+	private static class Scriptlet extends CompiledScript {
+
+		private final ExpressionTemplate template;
+		private final int index;
+
+		public Scriptlet(ExpressionTemplate template, int index) {
+			this.template = template;
+			this.index = index;
+		}
+
+		@Override
+		public Object eval(ScriptContext context) throws ScriptException {
+			// reuse script instance for all scriptlets evaluated within the same context
+			if (context instanceof Context) {
+				return template.eval(((Context) context).getScript(template), index);
+			}
+
+			// resolve variables via all scopes of the given context (e.g. engine scope first, then global scope)
+			List<Bindings> scopes = new ArrayList<Bindings>(2);
+			for (int scope : context.getScopes()) {
+				Bindings bindings = context.getBindings(scope);
+				if (bindings != null) {
+					scopes.add(bindings);
+				}
+			}
+
+			return template.eval(template.newInstance(new PrivilegedBinding(scopes, null)), index);
+		}
+
+		@Override
+		public ScriptEngine getEngine() {
+			return template.engine;
+		}
+	}
+
+	/**
+	 * Script context that evaluates binding values directly (instead of via a {@link PrivilegedInvocation} proxy) and shares script instances between scriptlets.
+	 */
+	public static class Context extends SimpleScriptContext {
+
+		private final PrivilegedBinding binding;
+		private final Map<ExpressionTemplate, Script> scripts = new IdentityHashMap<ExpressionTemplate, Script>(2);
+
+		public Context(Bindings bindings, AccessControlContext context) {
+			this.binding = new PrivilegedBinding(singletonList(bindings), context);
+
+			// use privileged bindings so we are not restricted by the script sandbox
+			setBindings(PrivilegedInvocation.newProxy(Bindings.class, bindings, context), ScriptContext.GLOBAL_SCOPE);
+		}
+
+		@Override
+		public Object getAttribute(String name) {
+			return binding.hasVariable(name) ? binding.getVariable(name) : null;
+		}
+
+		protected Script getScript(ExpressionTemplate template) throws ScriptException {
+			Script script = scripts.get(template);
+			if (script == null) {
+				script = template.newInstance(binding);
+				scripts.put(template, script);
+			}
+			return script;
+		}
+	}
+
+	/**
+	 * Groovy script binding that resolves undefined variables via the given bindings with the given access control context.
+	 */
+	private static class PrivilegedBinding extends Binding {
+
+		private final List<Bindings> scopes;
+		private final AccessControlContext context;
+
+		public PrivilegedBinding(List<Bindings> scopes, AccessControlContext context) {
+			this.scopes = scopes;
+			this.context = context;
+		}
+
+		@Override
+		public Object getVariable(String name) {
+			// variables assigned by the script itself
+			if (super.hasVariable(name)) {
+				return super.getVariable(name);
+			}
+
+			Object value = privileged(() -> {
+				for (Bindings bindings : scopes) {
+					if (bindings.containsKey(name)) {
+						return bindings.get(name);
+					}
+				}
+				return this;
+			});
+			if (value == this) {
+				throw new MissingPropertyException(name, getClass());
+			}
+			return value;
+		}
+
+		@Override
+		public boolean hasVariable(String name) {
+			return super.hasVariable(name) || privileged(() -> scopes.stream().anyMatch(it -> it.containsKey(name)));
+		}
+
+		private <T> T privileged(PrivilegedAction<T> action) {
+			return context == null ? action.run() : AccessController.doPrivileged(action, context);
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
@@ -157,6 +158,9 @@ public class AutoDetection {
 	public Map<Group, Set<File>> groupParallel(ExecutorService threadPool) {
 		Map<Group, Set<File>> groups = new LinkedHashMap<Group, Set<File>>();
 
+		// read xattr metadata of each folder in the background while we detect groups
+		stream(files).map(File::getParentFile).filter(Objects::nonNull).distinct().forEach(xattr::prefetch);
+
 		stream(files).collect(toMap(f -> f, f -> threadPool.submit(() -> detectGroup(f)), (a, b) -> a, LinkedHashMap::new)).forEach((file, group) -> {
 			try {
 				groups.computeIfAbsent(group.get(), k -> new LinkedHashSet<File>()).add(new File(file.getPath())); // use FastFile internally but do not expose to outside code that expects File objects
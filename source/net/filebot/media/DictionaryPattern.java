@@ -0,0 +1,93 @@
+package net.filebot.media;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.filebot.util.KeywordMatcher;
+
+/**
+ * Regular expression for a large dictionary of alternatives (e.g. thousands of release group names).
+ * <p>
+ * Literal alternatives are located via a single pass {@link KeywordMatcher} first, so that the regular expression for any given input only contains the alternatives that can possibly match, i.e. literal alternatives that occur in the input and all alternatives that are regular expressions themselves.
+ */
+public class DictionaryPattern {
+
+	private static final Pattern LITERAL = Pattern.compile("[^\\\\^$.|?*+()\\[\\]{}]+");
+	private static final Pattern QUOTED_LITERAL = Pattern.compile("\\\\Q((?:(?!\\\\E).)*)\\\\E", Pattern.DOTALL);
+
+	private static final Pattern NO_MATCH = Pattern.compile("(?!)");
+
+	private final String[] alternatives;
+	private final Function<String[], Pattern> template;
+
+	private final KeywordMatcher keywords;
+	private final int[] keywordAlternatives;
+	private final BitSet expressions = new BitSet();
+
+	private final Cache<BitSet, Pattern> cache = Caffeine.newBuilder().maximumSize(1000).build();
+
+	public DictionaryPattern(String[] alternatives, Function<String[], Pattern> template) {
+		this.alternatives = alternatives;
+		this.template = template;
+
+		List<String> literals = new ArrayList<String>(alternatives.length);
+		List<Integer> index = new ArrayList<Integer>(alternatives.length);
+
+		for (int i = 0; i < alternatives.length; i++) {
+			String literal = getLiteral(alternatives[i]);
+			if (literal != null) {
+				literals.add(literal);
+				index.add(i);
+			} else {
+				expressions.set(i);
+			}
+		}
+
+		this.keywords = new KeywordMatcher(literals);
+		this.keywordAlternatives = index.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	public Pattern getPattern() {
+		return template.apply(alternatives);
+	}
+
+	/**
+	 * @return regular expression that is equivalent to the complete pattern for the given input
+	 */
+	public Pattern getPattern(CharSequence input) {
+		BitSet candidates = (BitSet) expressions.clone();
+		keywords.match(input).stream().forEach(i -> candidates.set(keywordAlternatives[i]));
+
+		if (candidates.isEmpty()) {
+			return NO_MATCH;
+		}
+
+		return cache.get(candidates, k -> template.apply(k.stream().mapToObj(i -> alternatives[i]).toArray(String[]::new)));
+	}
+
+	public Matcher matcher(CharSequence input) {
+		return getPattern(input).matcher(input);
+	}
+
+	private static String getLiteral(String alternative) {
+		if (LITERAL.matcher(alternative).matches()) {
+			return alternative;
+		}
+
+		Matcher quoted = QUOTED_LITERAL.matcher(alternative);
+		if (quoted.matches()) {
+			return quoted.group(1);
+		}
+
+		// alternative is a regular expression
+		return null;
+	}
+
+}
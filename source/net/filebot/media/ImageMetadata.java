@@ -1,6 +1,7 @@
 package net.filebot.media;
 
 import static java.util.Arrays.*;
+import static java.util.Collections.*;
 import static net.filebot.Logging.*;
 import static net.filebot.Settings.*;
 import static net.filebot.util.JsonUtilities.*;
@@ -14,22 +15,27 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.EnumMap;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.drew.imaging.ImageMetadataReader;
 import com.drew.imaging.ImageProcessingException;
+import com.drew.imaging.jpeg.JpegMetadataReader;
 import com.drew.lang.GeoLocation;
 import com.drew.metadata.Directory;
 import com.drew.metadata.Metadata;
 import com.drew.metadata.Tag;
 import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifReader;
 import com.drew.metadata.exif.ExifSubIFDDirectory;
 import com.drew.metadata.exif.GpsDirectory;
 import com.drew.metadata.file.FileSystemDirectory;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import net.filebot.Cache;
 import net.filebot.CacheType;
@@ -37,14 +43,45 @@ import net.filebot.util.FileUtilities.ExtensionFileFilter;
 
 public class ImageMetadata {
 
-	private final Metadata metadata;
+	private final File file;
+
+	private Metadata metadata;
+	private boolean complete;
 
 	public ImageMetadata(File file) throws ImageProcessingException, IOException {
+		this(file, true);
+	}
+
+	/**
+	 * Read only the Exif segment of JPEG files if {@code complete} is false. Date taken, camera model and location are available right away, all other metadata is read on demand.
+	 */
+	ImageMetadata(File file, boolean complete) throws ImageProcessingException, IOException {
 		if (!SUPPORTED_FILE_TYPES.accept(file)) {
 			throw new IllegalArgumentException("Image type not supported: " + file);
 		}
 
-		metadata = ImageMetadataReader.readMetadata(file);
+		this.file = file;
+
+		// read only Exif segments of JPEG files (i.e. date taken, camera model and GPS) unless all metadata is required
+		if (complete || !JPEG_FILE_TYPES.accept(file)) {
+			this.metadata = ImageMetadataReader.readMetadata(file);
+			this.complete = true;
+		} else {
+			this.metadata = JpegMetadataReader.readMetadata(file, singleton(new ExifReader()));
+			this.complete = false;
+		}
+	}
+
+	protected synchronized Metadata getMetadata(boolean complete) {
+		if (complete && !this.complete) {
+			try {
+				metadata = ImageMetadataReader.readMetadata(file);
+			} catch (Exception e) {
+				debug.warning(format("Failed to read image metadata: %s", e));
+			}
+			this.complete = true;
+		}
+		return metadata;
 	}
 
 	public Map<String, String> snapshot() {
@@ -58,7 +95,7 @@ public class ImageMetadata {
 	public Map<String, String> snapshot(Function<Tag, String> key, Predicate<Directory> accept) {
 		Map<String, String> values = new LinkedHashMap<String, String>();
 
-		for (Directory directory : metadata.getDirectories()) {
+		for (Directory directory : getMetadata(true).getDirectories()) {
 			if (accept.test(directory)) {
 				for (Tag tag : directory.getTags()) {
 					String v = tag.getDescription();
@@ -73,17 +110,17 @@ public class ImageMetadata {
 	}
 
 	public Optional<String> getName() {
-		return extract(m -> m.getFirstDirectoryOfType(FileSystemDirectory.class)).map(d -> d.getString(FileSystemDirectory.TAG_FILE_NAME));
+		return extract(getMetadata(true), m -> m.getFirstDirectoryOfType(FileSystemDirectory.class)).map(d -> d.getString(FileSystemDirectory.TAG_FILE_NAME));
 	}
 
 	public Optional<ZonedDateTime> getDateTaken() {
-		return extract(m -> m.getFirstDirectoryOfType(ExifIFD0Directory.class)).map(d -> d.getDate(ExifSubIFDDirectory.TAG_DATETIME)).map(d -> {
+		return extractExif(m -> m.getFirstDirectoryOfType(ExifIFD0Directory.class)).map(d -> d.getDate(ExifSubIFDDirectory.TAG_DATETIME)).map(d -> {
 			return d.toInstant().atZone(ZoneOffset.UTC);
 		});
 	}
 
 	public Optional<Map<CameraProperty, String>> getCameraModel() {
-		return extract(m -> m.getFirstDirectoryOfType(ExifIFD0Directory.class)).map(d -> {
+		return extractExif(m -> m.getFirstDirectoryOfType(ExifIFD0Directory.class)).map(d -> {
 			String maker = d.getDescription(ExifIFD0Directory.TAG_MAKE);
 			String model = d.getDescription(ExifIFD0Directory.TAG_MODEL);
 
@@ -104,14 +141,29 @@ public class ImageMetadata {
 	}
 
 	public Optional<Map<AddressComponent, String>> getLocationTaken() {
-		return extract(m -> m.getFirstDirectoryOfType(GpsDirectory.class)).map(GpsDirectory::getGeoLocation).map(this::locate);
+		return extractExif(m -> m.getFirstDirectoryOfType(GpsDirectory.class)).map(GpsDirectory::getGeoLocation).map(this::locate);
 	}
 
 	protected Map<AddressComponent, String> locate(GeoLocation location) {
+		// photos taken within a few meters of each other resolve to the same address
+		String position = String.format(Locale.ROOT, "%.4f,%.4f", location.getLatitude(), location.getLongitude());
+
+		Map<AddressComponent, String> address = addressCache.getIfPresent(position);
+		if (address == null) {
+			// failed lookups are not memoized so they can be retried
+			address = geocode(position);
+			if (address != null) {
+				addressCache.put(position, address);
+			}
+		}
+		return address;
+	}
+
+	protected Map<AddressComponent, String> geocode(String position) {
 		try {
 			// e.g. https://maps.googleapis.com/maps/api/geocode/json?latlng=40.7470444,-073.9411611
 			Cache cache = Cache.getCache("geocode", CacheType.Persistent);
-			Object json = cache.json(location.getLatitude() + "," + location.getLongitude(), this::getGeocodeRequest).get();
+			Object json = cache.json(position, this::getGeocodeRequest).get();
 
 			Map<AddressComponent, String> address = new EnumMap<AddressComponent, String>(AddressComponent.class);
 
@@ -149,6 +201,14 @@ public class ImageMetadata {
 	}
 
 	public <T> Optional<T> extract(Function<Metadata, T> extract) {
+		return extract(getMetadata(true), extract);
+	}
+
+	private <T> Optional<T> extractExif(Function<Metadata, T> extract) {
+		return extract(getMetadata(false), extract);
+	}
+
+	private <T> Optional<T> extract(Metadata metadata, Function<Metadata, T> extract) {
 		try {
 			return Optional.ofNullable(extract.apply(metadata));
 		} catch (Exception e) {
@@ -157,6 +217,10 @@ public class ImageMetadata {
 		return Optional.empty();
 	}
 
+	private static final com.github.benmanes.caffeine.cache.Cache<String, Map<AddressComponent, String>> addressCache = Caffeine.newBuilder().maximumSize(1000).expireAfterAccess(1, TimeUnit.HOURS).build();
+
+	public static final FileFilter JPEG_FILE_TYPES = new ExtensionFileFilter("jpg", "jpeg");
+
 	public static final FileFilter SUPPORTED_FILE_TYPES = new ExtensionFileFilter("jpg", "jpeg", "png", "webp", "gif", "ico", "bmp", "tif", "tiff", "psd", "pcx", "raw", "crw", "cr2", "nef", "orf", "raf", "rw2", "rwl", "srw", "arw", "dng", "x3f", "mov", "mp4", "m4v", "3g2", "3gp", "3gp");
 
 }
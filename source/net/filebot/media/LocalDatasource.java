@@ -2,12 +2,17 @@ package net.filebot.media;
 
 import static java.util.stream.Collectors.*;
 import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
 import static net.filebot.util.FileUtilities.*;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.Icon;
 
@@ -57,34 +62,60 @@ public enum LocalDatasource implements Datasource {
 	public Map<File, Object> match(Collection<File> files, boolean strict) {
 		switch (this) {
 		case XATTR:
-			Map<File, Object> xattrMap = new LinkedHashMap<File, Object>(files.size());
-			for (File f : files) {
-				Object object = xattr.getMetaInfo(f);
-				if (object != null) {
-					xattrMap.put(f, object);
-				} else if (!strict) {
-					xattrMap.put(f, f);
+			return match(files, strict, xattr::getMetaInfo);
+		case EXIF:
+			return match(filter(files, ImageMetadata.SUPPORTED_FILE_TYPES), strict, f -> {
+				// only read the metadata required for matching
+				ImageMetadata metadata = new ImageMetadata(f, false);
+				if (metadata.getDateTaken().isPresent()) {
+					return new PhotoFile(f, metadata); // photo mode is the same as generic file mode (but only select photo files)
 				}
+				return null;
+			});
+		default:
+			return files.stream().collect(toMap(f -> f, f -> f, (a, b) -> a, LinkedHashMap::new));
+		}
+	}
+
+	private static Map<File, Object> match(Collection<File> files, boolean strict, MetadataReader reader) {
+		Map<File, Object> matches = new LinkedHashMap<File, Object>(files.size());
+		if (files.isEmpty()) {
+			return matches;
+		}
+
+		// read metadata in parallel but keep the original order
+		ExecutorService workerThreadPool = Executors.newFixedThreadPool(Math.min(files.size(), getPreferredThreadPoolSize()));
+
+		try {
+			Map<File, Future<Object>> futures = new LinkedHashMap<File, Future<Object>>(files.size());
+			for (File f : files) {
+				futures.put(f, workerThreadPool.submit(() -> reader.read(f)));
 			}
-			return xattrMap;
-		case EXIF:
-			Map<File, Object> exifMap = new LinkedHashMap<File, Object>(files.size());
-			for (File f : filter(files, ImageMetadata.SUPPORTED_FILE_TYPES)) {
+
+			futures.forEach((f, future) -> {
 				try {
-					ImageMetadata metadata = new ImageMetadata(f);
-					if (metadata.getDateTaken().isPresent()) {
-						exifMap.put(f, new PhotoFile(f, metadata)); // photo mode is the same as generic file mode (but only select photo files)
+					Object object = future.get();
+					if (object != null) {
+						matches.put(f, object);
 					} else if (!strict) {
-						exifMap.put(f, f);
+						matches.put(f, f);
 					}
-				} catch (Exception e) {
-					debug.warning(format("%s [%s]", e, f));
+				} catch (ExecutionException e) {
+					debug.warning(format("%s [%s]", e.getCause(), f));
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
 				}
-			}
-			return exifMap;
-		default:
-			return files.stream().collect(toMap(f -> f, f -> f, (a, b) -> a, LinkedHashMap::new));
+			});
+		} finally {
+			workerThreadPool.shutdownNow();
 		}
+
+		return matches;
+	}
+
+	@FunctionalInterface
+	private interface MetadataReader {
+		Object read(File file) throws Exception;
 	}
 
 	// enable xattr regardless of -DuseExtendedFileAttributes system properties
@@ -6,6 +6,7 @@ import static java.util.regex.Pattern.*;
 import static java.util.stream.Collectors.*;
 import static net.filebot.Logging.*;
 import static net.filebot.MediaTypes.*;
+import static net.filebot.Settings.*;
 import static net.filebot.media.XattrMetaInfo.*;
 import static net.filebot.similarity.CommonSequenceMatcher.*;
 import static net.filebot.similarity.Normalization.*;
@@ -17,6 +18,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.text.CollationKey;
+import java.text.Collator;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,6 +38,9 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -188,46 +193,77 @@ public class MediaDetection {
 		Map<File, Set<String>> seriesNamesByFolder = new HashMap<File, Set<String>>();
 		Map<File, List<File>> filesByFolder = mapByFolder(files);
 
-		for (Entry<File, List<File>> it : filesByFolder.entrySet()) {
-			Set<String> namesForFolder = new TreeSet<String>(getLenientCollator(locale));
-			namesForFolder.addAll(detectSeriesNames(it.getValue(), anime, locale));
+		// detect series names for each folder in parallel (nested tasks take precedence over the tasks of the caller either way)
+		Map<File, Future<Collection<String>>> seriesNamesTasks = new LinkedHashMap<File, Future<Collection<String>>>();
 
-			seriesNamesByFolder.put(it.getKey(), namesForFolder);
+		ExecutorService workerThreadPool = WebServices.matchThreadPool.newTaskGroup(Thread.NORM_PRIORITY);
+		try {
+			filesByFolder.forEach((folder, folderFiles) -> {
+				seriesNamesTasks.put(folder, workerThreadPool.submit(() -> detectSeriesNames(folderFiles, anime, locale)));
+			});
+
+			for (Entry<File, Future<Collection<String>>> it : seriesNamesTasks.entrySet()) {
+				Set<String> namesForFolder = new TreeSet<String>(getLenientCollator(locale));
+				try {
+					namesForFolder.addAll(it.getValue().get());
+				} catch (ExecutionException e) {
+					throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+				}
+
+				seriesNamesByFolder.put(it.getKey(), namesForFolder);
+			}
+		} finally {
+			workerThreadPool.shutdownNow();
 		}
 
-		// reverse map folders by series name
+		return mapSeriesNamesByFolder(files, filesByFolder, seriesNamesByFolder, locale);
+	}
+
+	protected static Map<Set<File>, Set<String>> mapSeriesNamesByFolder(Collection<File> files, Map<File, List<File>> filesByFolder, Map<File, Set<String>> seriesNamesByFolder, Locale locale) {
+		// reverse map folders by series name (names that are equal according to the collator share the same folder set)
+		Collator collator = getLenientCollator(locale);
+		Map<CollationKey, Set<File>> foldersBySeriesKey = new HashMap<CollationKey, Set<File>>();
 		Map<String, Set<File>> foldersBySeriesName = new HashMap<String, Set<File>>();
 
-		for (Set<String> nameSet : seriesNamesByFolder.values()) {
-			for (String name : nameSet) {
-				Set<File> foldersForSeries = new HashSet<File>();
-				for (Entry<File, Set<String>> it : seriesNamesByFolder.entrySet()) {
-					if (it.getValue().contains(name)) {
-						foldersForSeries.add(it.getKey());
-					}
-				}
+		for (Entry<File, Set<String>> it : seriesNamesByFolder.entrySet()) {
+			for (String name : it.getValue()) {
+				Set<File> foldersForSeries = foldersBySeriesKey.computeIfAbsent(collator.getCollationKey(name), k -> new HashSet<File>());
+				foldersForSeries.add(it.getKey());
 				foldersBySeriesName.put(name, foldersForSeries);
 			}
 		}
 
 		// join both sets
 		Map<Set<File>, Set<String>> batchSets = new HashMap<Set<File>, Set<String>>();
+		Set<File> accountedFolders = new HashSet<File>();
+
+		for (File seed : seriesNamesByFolder.keySet()) {
+			if (accountedFolders.contains(seed)) {
+				continue;
+			}
 
-		while (seriesNamesByFolder.size() > 0) {
 			Set<String> combinedNameSet = new TreeSet<String>(getLenientCollator(locale));
 			Set<File> combinedFolderSet = new HashSet<File>();
 
 			// build combined match set
-			combinedFolderSet.add(seriesNamesByFolder.keySet().iterator().next());
+			combinedFolderSet.add(seed);
+
+			// folders and names that have already been joined into the combined match set won't yield anything new
+			Set<File> resolvedFolders = new HashSet<File>();
+			Set<String> resolvedNames = new HashSet<String>();
 
 			boolean resolveFurther = true;
 			while (resolveFurther) {
 				boolean modified = false;
 				for (File folder : combinedFolderSet) {
-					modified |= combinedNameSet.addAll(seriesNamesByFolder.get(folder));
+					if (resolvedFolders.add(folder)) {
+						modified |= combinedNameSet.addAll(seriesNamesByFolder.get(folder));
+					}
 				}
 				for (String name : combinedNameSet) {
-					modified |= combinedFolderSet.addAll(foldersBySeriesName.get(name));
+					if (resolvedNames.add(name)) {
+						modified |= combinedFolderSet.addAll(foldersBySeriesName.get(name));
+					}
 				}
 				resolveFurther &= modified;
 			}
@@ -287,7 +323,7 @@ public class MediaDetection {
 			}
 
 			// set folders as accounted for
-			seriesNamesByFolder.keySet().removeAll(combinedFolderSet);
+			accountedFolders.addAll(combinedFolderSet);
 		}
 
 		// handle files that have not been matched to a batch set yet
@@ -328,8 +364,7 @@ public class MediaDetection {
 		List<String> unids = new ArrayList<String>();
 
 		// try xattr metadata if enabled
-		for (File it : files) {
-			Object metaObject = xattr.getMetaInfo(it);
+		for (Object metaObject : xattr.getMetaInfo(files).values()) {
 			if (metaObject instanceof Episode) {
 				unids.add(((Episode) metaObject).getSeriesName());
 			}
@@ -22,6 +22,7 @@ import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -31,6 +32,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.regex.Matcher;
@@ -46,6 +49,7 @@ import net.filebot.CacheType;
 import net.filebot.Resource;
 import net.filebot.util.FileUtilities.RegexFindFilter;
 import net.filebot.util.FileUtilities.RegexMatchFilter;
+import net.filebot.util.KeywordMatcher;
 import net.filebot.util.SystemProperty;
 import net.filebot.web.Movie;
 import net.filebot.web.SearchResult;
@@ -102,7 +106,7 @@ public class ReleaseInfo {
 		String[] groups = releaseGroup.get();
 
 		for (boolean strict : new boolean[] { true, false }) {
-			String match = matchLast(getReleaseGroupPattern(strict), groups, name);
+			String match = matchLast(getReleaseGroupDictionaryPattern(strict)::getPattern, groups, name);
 
 			if (match != null) {
 				// group pattern does not match closing brackets in GROUP[INDEX] patterns
@@ -142,12 +146,20 @@ public class ReleaseInfo {
 	}
 
 	protected String matchLast(Pattern pattern, String[] paragon, CharSequence... sequence) {
+		return matchLast(s -> pattern, paragon, sequence);
+	}
+
+	private String matchLast(Function<CharSequence, Pattern> pattern, String[] paragon, CharSequence... sequence) {
 		// match last occurrence
-		String lastMatch = stream(sequence).filter(Objects::nonNull).map(s -> matchLastOccurrence(s, pattern)).filter(Objects::nonNull).findFirst().orElse(null);
+		String lastMatch = stream(sequence).filter(Objects::nonNull).map(s -> matchLastOccurrence(s, pattern.apply(s))).filter(Objects::nonNull).findFirst().orElse(null);
 
 		// prefer standard value over matched value
 		if (lastMatch != null && paragon != null) {
-			for (String it : paragon) {
+			// only paragons that occur in the matched value can possibly match
+			BitSet candidates = getParagonMatcher(paragon).match(lastMatch);
+
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+				String it = paragon[i];
 				lastMatch = compile("(?<!\\p{Alnum})" + quote(it) + "(?!\\p{Alnum})", CASE_INSENSITIVE | UNICODE_CHARACTER_CLASS).matcher(lastMatch).replaceAll(it);
 			}
 		}
@@ -155,48 +167,64 @@ public class ReleaseInfo {
 		return lastMatch;
 	}
 
+	private final Map<String[], KeywordMatcher> paragonMatchers = synchronizedMap(new WeakHashMap<String[], KeywordMatcher>());
+
+	private KeywordMatcher getParagonMatcher(String[] paragon) {
+		return paragonMatchers.computeIfAbsent(paragon, p -> new KeywordMatcher(asList(p)));
+	}
+
 	// cached patterns
-	private final Pattern[][] stopwords = new Pattern[2][];
-	private final Pattern[][] blacklist = new Pattern[2][];
+	private final Map<Boolean, List<Function<CharSequence, Pattern>>> stopwords = new ConcurrentHashMap<Boolean, List<Function<CharSequence, Pattern>>>(2);
+	private final Map<Boolean, List<Function<CharSequence, Pattern>>> blacklist = new ConcurrentHashMap<Boolean, List<Function<CharSequence, Pattern>>>(2);
 
 	public List<String> cleanRelease(Collection<String> items, boolean strict) throws Exception {
-		int b = strict ? 1 : 0;
-
 		// initialize cached patterns
-		if (stopwords[b] == null || blacklist[b] == null) {
-			Pattern clutterBracket = getClutterBracketPattern(strict);
-			Pattern releaseGroup = getReleaseGroupPattern(strict);
-			Pattern releaseGroupTrim = getReleaseGroupTrimPattern();
-			Pattern languageSuffix = getSubtitleLanguageTagPattern();
-			Pattern languageTag = getLanguageTagPattern(strict);
-			Pattern videoSource = getVideoSourcePattern();
-			Pattern videoTags = getVideoTagPattern();
-			Pattern videoFormat = getVideoFormatPattern(strict);
-			Pattern stereoscopic3d = getStereoscopic3DPattern();
-			Pattern resolution = getResolutionPattern();
-			Pattern queryBlacklist = getBlacklistPattern();
-
-			stopwords[b] = new Pattern[] { languageSuffix, languageTag, videoSource, videoTags, videoFormat, resolution, stereoscopic3d };
-			blacklist[b] = new Pattern[] { EMBEDDED_CHECKSUM, languageSuffix, releaseGroupTrim, queryBlacklist, languageTag, clutterBracket, releaseGroup, videoSource, videoTags, videoFormat, resolution, stereoscopic3d };
+		if (!stopwords.containsKey(strict) || !blacklist.containsKey(strict)) {
+			// patterns for large dictionaries are reduced to the alternatives that occur in the given input
+			Function<CharSequence, Pattern> clutterBracket = constant(getClutterBracketPattern(strict));
+			Function<CharSequence, Pattern> releaseGroup = getReleaseGroupDictionaryPattern(strict)::getPattern;
+			Function<CharSequence, Pattern> releaseGroupTrim = new DictionaryPattern(this.releaseGroup.get(), this::getReleaseGroupTrimPattern)::getPattern;
+			Function<CharSequence, Pattern> languageSuffix = new DictionaryPattern(quoteAll(getDefaultLanguageMap().keySet()), this::getSubtitleLanguageTagPattern)::getPattern;
+			Function<CharSequence, Pattern> languageTag = new DictionaryPattern(getLanguageTags(strict), tags -> getLanguageTagPattern(tags, strict))::getPattern;
+			Function<CharSequence, Pattern> videoSource = constant(getVideoSourcePattern());
+			Function<CharSequence, Pattern> videoTags = constant(getVideoTagPattern());
+			Function<CharSequence, Pattern> videoFormat = constant(getVideoFormatPattern(strict));
+			Function<CharSequence, Pattern> stereoscopic3d = constant(getStereoscopic3DPattern());
+			Function<CharSequence, Pattern> resolution = constant(getResolutionPattern());
+			Function<CharSequence, Pattern> queryBlacklist = new DictionaryPattern(this.queryBlacklist.get(), this::compileWordPattern)::getPattern;
+
+			stopwords.put(strict, asList(languageSuffix, languageTag, videoSource, videoTags, videoFormat, resolution, stereoscopic3d));
+			blacklist.put(strict, asList(constant(EMBEDDED_CHECKSUM), languageSuffix, releaseGroupTrim, queryBlacklist, languageTag, clutterBracket, releaseGroup, videoSource, videoTags, videoFormat, resolution, stereoscopic3d));
 		}
 
+		List<Function<CharSequence, Pattern>> stopwords = this.stopwords.get(strict);
+		List<Function<CharSequence, Pattern>> blacklist = this.blacklist.get(strict);
+
 		return items.stream().map(it -> {
-			String head = strict ? clean(it, stopwords[b]) : substringBefore(it, stopwords[b]);
-			String norm = normalizePunctuation(clean(head, blacklist[b]));
+			String head = strict ? clean(it, stopwords) : substringBefore(it, stopwords);
+			String norm = normalizePunctuation(clean(head, blacklist));
 			return norm;
 		}).filter(s -> s.length() > 0).collect(toList());
 	}
 
 	public String clean(String item, Pattern... blacklisted) {
-		for (Pattern it : blacklisted) {
-			item = it.matcher(item).replaceAll("");
+		return clean(item, stream(blacklisted).map(ReleaseInfo::constant).collect(toList()));
+	}
+
+	public String substringBefore(String item, Pattern... stopwords) {
+		return substringBefore(item, stream(stopwords).map(ReleaseInfo::constant).collect(toList()));
+	}
+
+	private String clean(String item, List<Function<CharSequence, Pattern>> blacklisted) {
+		for (Function<CharSequence, Pattern> it : blacklisted) {
+			item = it.apply(item).matcher(item).replaceAll("");
 		}
 		return item;
 	}
 
-	public String substringBefore(String item, Pattern... stopwords) {
-		for (Pattern it : stopwords) {
-			Matcher matcher = it.matcher(item);
+	private String substringBefore(String item, List<Function<CharSequence, Pattern>> stopwords) {
+		for (Function<CharSequence, Pattern> it : stopwords) {
+			Matcher matcher = it.apply(item).matcher(item);
 			if (matcher.find()) {
 				String substring = item.substring(0, matcher.start()); // use substring before the matched stopword
 				if (normalizePunctuation(substring).length() >= 3) {
@@ -207,6 +235,10 @@ public class ReleaseInfo {
 		return item;
 	}
 
+	private static Function<CharSequence, Pattern> constant(Pattern pattern) {
+		return s -> pattern;
+	}
+
 	// cached patterns
 	private Set<File> volumeRoots;
 	private Pattern structureRootFolderPattern;
@@ -274,14 +306,25 @@ public class ReleaseInfo {
 	}
 
 	public Pattern getLanguageTagPattern(boolean strict) {
+		return getLanguageTagPattern(getLanguageTags(strict), strict);
+	}
+
+	private String[] getLanguageTags(boolean strict) {
 		// [en]
 		if (strict) {
-			return compile("(?<=[-\\[\\{\\(])" + or(quoteAll(getDefaultLanguageMap().keySet())) + "(?=[-\\]\\}\\)]|$)", CASE_INSENSITIVE);
+			return quoteAll(getDefaultLanguageMap().keySet());
 		}
 
 		// FR
 		List<String> allCapsLanguageTags = getDefaultLanguageMap().keySet().stream().map(String::toUpperCase).collect(toList());
-		return compile("(?<!\\p{Alnum})" + or(quoteAll(allCapsLanguageTags)) + "(?!\\p{Alnum})");
+		return quoteAll(allCapsLanguageTags);
+	}
+
+	private Pattern getLanguageTagPattern(String[] tags, boolean strict) {
+		if (strict) {
+			return compile("(?<=[-\\[\\{\\(])" + or(tags) + "(?=[-\\]\\}\\)]|$)", CASE_INSENSITIVE);
+		}
+		return compile("(?<!\\p{Alnum})" + or(tags) + "(?!\\p{Alnum})");
 	}
 
 	public Pattern getSubtitleCategoryTagPattern() {
@@ -290,8 +333,12 @@ public class ReleaseInfo {
 	}
 
 	public Pattern getSubtitleLanguageTagPattern() {
+		return getSubtitleLanguageTagPattern(quoteAll(getDefaultLanguageMap().keySet()));
+	}
+
+	private Pattern getSubtitleLanguageTagPattern(String[] tags) {
 		// e.g. ".en.srt" or ".en.forced.srt"
-		return compile("(?<=[._-])" + or(quoteAll(getDefaultLanguageMap().keySet())) + "(?=([._-]" + or(getSubtitleCategoryTags()) + ")?$)", CASE_INSENSITIVE);
+		return compile("(?<=[._-])" + or(tags) + "(?=([._-]" + or(getSubtitleCategoryTags()) + ")?$)", CASE_INSENSITIVE);
 	}
 
 	public Pattern getResolutionPattern() {
@@ -339,8 +386,12 @@ public class ReleaseInfo {
 	}
 
 	public Pattern getReleaseGroupPattern(boolean strict) throws Exception {
+		return getReleaseGroupPattern(releaseGroup.get(), strict);
+	}
+
+	private Pattern getReleaseGroupPattern(String[] groups, boolean strict) {
 		// match 1..N group patterns (e.g. GROUP[INDEX])
-		String group = "((?<!\\p{Alnum})" + or(releaseGroup.get()) + "(?!\\p{Alnum})[\\p{Punct}]??)+";
+		String group = "((?<!\\p{Alnum})" + or(groups) + "(?!\\p{Alnum})[\\p{Punct}]??)+";
 
 		// group pattern at beginning or ending of the string
 		String[] groupHeadTail = { "(?<=^[\\P{Alnum}]*)" + group, group + "(?=[\\P{Alnum}]*$)" };
@@ -348,9 +399,24 @@ public class ReleaseInfo {
 		return compile(or(groupHeadTail), strict ? 0 : CASE_INSENSITIVE);
 	}
 
+	// cached patterns
+	private final DictionaryPattern[] releaseGroupPattern = new DictionaryPattern[2];
+
+	private DictionaryPattern getReleaseGroupDictionaryPattern(boolean strict) throws Exception {
+		int b = strict ? 1 : 0;
+		if (releaseGroupPattern[b] == null) {
+			releaseGroupPattern[b] = new DictionaryPattern(releaseGroup.get(), groups -> getReleaseGroupPattern(groups, strict));
+		}
+		return releaseGroupPattern[b];
+	}
+
 	public Pattern getReleaseGroupTrimPattern() throws Exception {
+		return getReleaseGroupTrimPattern(releaseGroup.get());
+	}
+
+	private Pattern getReleaseGroupTrimPattern(String[] groups) {
 		// pattern matching any release group name enclosed in specific separators or at the start/end
-		return compile("(?<=\\[|\\(|^)" + or(releaseGroup.get()) + "(?=\\]|\\)|\\-)|(?<=\\[|\\(|\\-)" + or(releaseGroup.get()) + "(?=\\]|\\)|$)", CASE_INSENSITIVE);
+		return compile("(?<=\\[|\\(|^)" + or(groups) + "(?=\\]|\\)|\\-)|(?<=\\[|\\(|\\-)" + or(groups) + "(?=\\]|\\)|$)", CASE_INSENSITIVE);
 	}
 
 	public Pattern getBlacklistPattern() throws Exception {
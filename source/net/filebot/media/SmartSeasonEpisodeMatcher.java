@@ -18,8 +18,8 @@ public class SmartSeasonEpisodeMatcher extends SeasonEpisodeMatcher {
 	}
 
 	@Override
-	public List<SxE> match(CharSequence name) {
-		return super.match(clean(name));
+	protected List<SxE> parse(String name) {
+		return super.parse(clean(name));
 	}
 
 	@Override
@@ -30,8 +30,23 @@ public enum XattrChecksum {
 		});
 	}
 
+	public String getIfPresent(File file) {
+		String value = cache.getIfPresent(file);
+
+		// read xattr but do not compute checksum
+		if (value == null && useExtendedFileAttributes()) {
+			try {
+				value = new MetaAttributeView(file).get(getKey());
+			} catch (Exception e) {
+				debug.warning(cause("Failed to read xattr", e));
+			}
+		}
+
+		return value;
+	}
+
 	public String compute(File file) throws IOException, InterruptedException {
-		if (!useExtendedFileAttributes) {
+		if (!useExtendedFileAttributes()) {
 			return computeHash(file, getHashType());
 		}
 
@@ -60,9 +75,9 @@ public enum XattrChecksum {
 	}
 
 	public void clear(File file) {
-		cache.invalidate(cache);
+		cache.invalidate(file);
 
-		if (useExtendedFileAttributes) {
+		if (useExtendedFileAttributes()) {
 			try {
 				new MetaAttributeView(file).put(getKey(), null);
 			} catch (Exception e) {
@@ -83,6 +98,4 @@ public enum XattrChecksum {
 		return null;
 	}
 
-	private static final boolean useExtendedFileAttributes = useExtendedFileAttributes();
-
 }
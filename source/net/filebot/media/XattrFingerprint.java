@@ -0,0 +1,153 @@
+package net.filebot.media;
+
+import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+import net.filebot.MetaAttributeView;
+import net.filebot.util.SystemProperty;
+
+/**
+ * Content fingerprints for duplicate detection. Fingerprints are stored as xattr together with the file size and Last-Modified date they have been computed for, so that the same files never need to be read twice.
+ */
+public enum XattrFingerprint {
+
+	/**
+	 * Hash of blocks sampled at fixed offsets
+	 */
+	SAMPLE,
+
+	/**
+	 * Hash of the complete file content
+	 */
+	FULL;
+
+	private static final int SAMPLE_BLOCKS = 16;
+	private static final int SAMPLE_BLOCK_SIZE = 64 * 1024;
+
+	public String computeIfAbsent(File file) throws Exception {
+		long length = file.length();
+		long lastModified = file.lastModified();
+
+		// stored fingerprint is only valid if the file has not been modified since
+		String prefix = String.format("%d:%d:", length, lastModified);
+
+		MetaAttributeView xattr = useExtendedFileAttributes() ? new MetaAttributeView(file) : null;
+		if (xattr != null) {
+			String value = xattr.get(getKey());
+			if (value != null && value.startsWith(prefix)) {
+				return value.substring(prefix.length());
+			}
+		}
+
+		String hash = compute(file);
+
+		// store fingerprint (and make sure Last-Modified date is not changed)
+		if (xattr != null) {
+			try {
+				xattr.put(getKey(), prefix + hash); // may or may not change Last-Modified date
+			} catch (Exception e) {
+				debug.warning(cause("Failed to set xattr", e));
+			} finally {
+				file.setLastModified(lastModified);
+			}
+		}
+
+		return hash;
+	}
+
+	public String compute(File file) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		ByteBuffer buffer = ByteBuffer.allocate(SAMPLE_BLOCK_SIZE);
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+
+			if (this == FULL || size <= SAMPLE_BLOCKS * SAMPLE_BLOCK_SIZE) {
+				while (channel.read(buffer) >= 0) {
+					buffer.flip();
+					digest.update(buffer);
+					buffer.clear();
+				}
+			} else {
+				// first block, last block and evenly spaced blocks in between
+				for (int i = 0; i < SAMPLE_BLOCKS; i++) {
+					long position = (size - SAMPLE_BLOCK_SIZE) * i / (SAMPLE_BLOCKS - 1);
+					while (buffer.hasRemaining()) {
+						int n = channel.read(buffer, position + buffer.position());
+						if (n < 0) {
+							throw new IOException("Unexpected end of file: " + file);
+						}
+					}
+					buffer.flip();
+					digest.update(buffer);
+					buffer.clear();
+				}
+			}
+		}
+
+		return String.format("%064x", new BigInteger(1, digest.digest()));
+	}
+
+	private String getKey() {
+		return "net.filebot.fingerprint." + name().toLowerCase();
+	}
+
+	public static boolean isFullCompare() {
+		return SystemProperty.of("net.filebot.duplicate.fullCompare", Boolean::parseBoolean, false).get();
+	}
+
+	/**
+	 * Check if both files have the same content, using the cheapest test that gives a definite answer first.
+	 */
+	public static boolean isDuplicate(File a, File b) {
+		try {
+			// must be regular files with the same file size
+			BasicFileAttributes attrA = Files.readAttributes(a.toPath(), BasicFileAttributes.class);
+			BasicFileAttributes attrB = Files.readAttributes(b.toPath(), BasicFileAttributes.class);
+
+			if (!attrA.isRegularFile() || !attrB.isRegularFile() || attrA.size() != attrB.size()) {
+				return false;
+			}
+
+			// same device and inode (e.g. hardlinks or case-insensitive file system)
+			if (attrA.fileKey() != null && Objects.equals(attrA.fileKey(), attrB.fileKey()) || Files.isSameFile(a.toPath(), b.toPath())) {
+				return true;
+			}
+
+			// previously computed checksums
+			String crcA = XattrChecksum.CRC32.getIfPresent(a);
+			String crcB = XattrChecksum.CRC32.getIfPresent(b);
+
+			if (crcA != null && crcB != null) {
+				return crcA.equalsIgnoreCase(crcB);
+			}
+
+			// sampled blocks
+			if (!SAMPLE.computeIfAbsent(a).equals(SAMPLE.computeIfAbsent(b))) {
+				return false;
+			}
+
+			// complete file content
+			if (isFullCompare()) {
+				return FULL.computeIfAbsent(a).equals(FULL.computeIfAbsent(b));
+			}
+
+			return true;
+		} catch (Exception e) {
+			debug.warning(cause("Failed to compare file content", e));
+		}
+		return false;
+	}
+
+}
@@ -1,34 +1,49 @@
 package net.filebot.media;
 
 import static net.filebot.Logging.*;
-import static net.filebot.Settings.*;
+import static net.filebot.util.FileUtilities.*;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.function.BooleanSupplier;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 import net.filebot.Resource;
+import net.filebot.Settings;
 import net.filebot.WebServices;
+import net.filebot.util.DefaultThreadFactory;
 import net.filebot.web.Episode;
 import net.filebot.web.Movie;
 import net.filebot.web.SimpleDate;
 
 public class XattrMetaInfo {
 
-	public static final XattrMetaInfo xattr = new XattrMetaInfo(useExtendedFileAttributes(), useCreationDate());
+	// settings may change with each command of a daemon client
+	public static final XattrMetaInfo xattr = new XattrMetaInfo(Settings::useExtendedFileAttributes, Settings::useCreationDate);
 
-	private final boolean useExtendedFileAttributes;
-	private final boolean useCreationDate;
+	private final BooleanSupplier useExtendedFileAttributes;
+	private final BooleanSupplier useCreationDate;
 
 	private final Cache<File, Optional<Object>> xattrMetaInfoCache = Caffeine.newBuilder().expireAfterAccess(24, TimeUnit.HOURS).build();
 	private final Cache<File, Optional<Object>> xattrOriginalNameCache = Caffeine.newBuilder().expireAfterAccess(24, TimeUnit.HOURS).build();
 
+	// xattr reads are blocking file system calls so we keep them off the matcher threads
+	private static final ExecutorService xattrReader = Executors.newFixedThreadPool(Settings.getPreferredThreadPoolSize(), new DefaultThreadFactory("XattrReader", Thread.NORM_PRIORITY, true));
+
 	public XattrMetaInfo(boolean useExtendedFileAttributes, boolean useCreationDate) {
+		this(() -> useExtendedFileAttributes, () -> useCreationDate);
+	}
+
+	private XattrMetaInfo(BooleanSupplier useExtendedFileAttributes, BooleanSupplier useCreationDate) {
 		this.useExtendedFileAttributes = useExtendedFileAttributes;
 		this.useCreationDate = useCreationDate;
 	}
@@ -55,28 +70,75 @@ public class XattrMetaInfo {
 		return -1;
 	}
 
-	public synchronized Object getMetaInfo(File file) {
-		return getXattrValue(xattrMetaInfoCache, file, MetaAttributes::getObject);
+	public Object getMetaInfo(File file) {
+		return getXattrValue(xattrMetaInfoCache, file, this::readMetaInfo);
 	}
 
-	public synchronized String getOriginalName(File file) {
-		return (String) getXattrValue(xattrOriginalNameCache, file, MetaAttributes::getOriginalName);
+	public String getOriginalName(File file) {
+		return (String) getXattrValue(xattrOriginalNameCache, file, f -> Optional.ofNullable(xattr(f).getOriginalName()));
 	}
 
-	private Object getXattrValue(Cache<File, Optional<Object>> cache, File file, Function<MetaAttributes, Object> compute) {
-		// try in-memory cache of previously stored xattr metadata
-		if (!useExtendedFileAttributes) {
-			return cache.getIfPresent(file);
+	/**
+	 * Read metadata (and original names) of all given files concurrently.
+	 */
+	public Map<File, Object> getMetaInfo(Collection<File> files) {
+		prefetch(files);
+
+		// wait for pending reads
+		Map<File, Object> metaInfo = new LinkedHashMap<File, Object>(files.size());
+		for (File f : files) {
+			metaInfo.put(f, getMetaInfo(f));
 		}
+		return metaInfo;
+	}
 
-		return cache.get(file, f -> {
-			try {
-				return Optional.ofNullable(compute.apply(xattr(f)));
-			} catch (Exception e) {
-				debug.warning(cause("Failed to read xattr", e));
-				return Optional.empty();
+	/**
+	 * Read metadata (and original names) of all files in the given folder in the background, so that subsequent reads are served from memory.
+	 */
+	public void prefetch(File folder) {
+		prefetch(getChildren(folder, FILES));
+	}
+
+	private void prefetch(Collection<File> files) {
+		if (!useExtendedFileAttributes.getAsBoolean()) {
+			return;
+		}
+
+		// concurrent reads of the same file wait for the pending read instead of reading the same file again
+		for (File f : files) {
+			if (xattrMetaInfoCache.getIfPresent(f) == null) {
+				xattrReader.execute(() -> xattrMetaInfoCache.get(f, k -> readXattrValue(k, this::readMetaInfo)));
 			}
-		}).orElse(null);// read only
+		}
+	}
+
+	private Optional<Object> readMetaInfo(File f) throws Exception {
+		MetaAttributes attr = xattr(f);
+
+		// original name is cheap to read and likely to be requested as well
+		xattrOriginalNameCache.asMap().putIfAbsent(f, Optional.ofNullable(attr.getOriginalName()));
+
+		return Optional.ofNullable(attr.getObject());
+	}
+
+	private Object getXattrValue(Cache<File, Optional<Object>> cache, File file, XattrReader reader) {
+		// try in-memory cache of previously stored xattr metadata
+		if (!useExtendedFileAttributes.getAsBoolean()) {
+			Optional<Object> value = cache.getIfPresent(file);
+			return value == null ? null : value.orElse(null);
+		}
+
+		// values are computed at most once per file and concurrent reads of other files are not blocked
+		return cache.get(file, f -> readXattrValue(f, reader)).orElse(null);// read only
+	}
+
+	private Optional<Object> readXattrValue(File file, XattrReader reader) {
+		try {
+			return reader.read(file);
+		} catch (Exception e) {
+			debug.warning(cause("Failed to read xattr", e));
+			return Optional.empty();
+		}
 	}
 
 	private File writable(File f) throws Exception {
@@ -95,7 +157,7 @@ public class XattrMetaInfo {
 		return new MetaAttributes(f);
 	}
 
-	public synchronized void setMetaInfo(File file, Object model, String original) {
+	public void setMetaInfo(File file, Object model, String original) {
 		// only for Episode / Movie objects
 		if (!isMetaInfo(model) || !file.isFile()) {
 			return;
@@ -104,7 +166,7 @@ public class XattrMetaInfo {
 		// set creation date to episode / movie release date
 		Resource<MetaAttributes> xattr = Resource.lazy(() -> xattr(writable(file)));
 
-		if (useCreationDate) {
+		if (useCreationDate.getAsBoolean()) {
 			try {
 				long t = getTimeStamp(model);
 				if (t > 0) {
@@ -116,39 +178,50 @@ public class XattrMetaInfo {
 		}
 
 		// store metadata object and original name as xattr
-		try {
-			if (isMetaInfo(model)) {
-				xattrMetaInfoCache.put(file, Optional.of(model));
-
-				if (useExtendedFileAttributes) {
+		xattrMetaInfoCache.asMap().compute(file, (f, v) -> {
+			if (useExtendedFileAttributes.getAsBoolean()) {
+				try {
 					xattr.get().setObject(model);
+				} catch (Throwable e) {
+					debug.warning(cause("Failed to set xattr", e));
 				}
 			}
-
-			if (original != null && original.length() > 0 && getOriginalName(file) == null) {
-				xattrOriginalNameCache.put(file, Optional.of(original));
-
-				if (useExtendedFileAttributes) {
-					xattr.get().setOriginalName(original);
+			return Optional.of(model);
+		});
+
+		if (original != null && original.length() > 0 && getOriginalName(file) == null) {
+			xattrOriginalNameCache.asMap().compute(file, (f, v) -> {
+				if (useExtendedFileAttributes.getAsBoolean()) {
+					try {
+						xattr.get().setOriginalName(original);
+					} catch (Throwable e) {
+						debug.warning(cause("Failed to set xattr", e));
+					}
 				}
-			}
-		} catch (Throwable e) {
-			debug.warning(cause("Failed to set xattr", e));
+				return Optional.of(original);
+			});
 		}
 	}
 
-	public synchronized void clear(File file) {
-		// clear in-memory cache
-		xattrMetaInfoCache.invalidate(file);
+	public void clear(File file) {
+		// clear xattr and in-memory cache
+		xattrMetaInfoCache.asMap().compute(file, (f, v) -> {
+			if (useExtendedFileAttributes.getAsBoolean()) {
+				try {
+					xattr(writable(f)).clear();
+				} catch (Throwable e) {
+					debug.warning(cause("Failed to clear xattr", e));
+				}
+			}
+			return null;
+		});
+
 		xattrOriginalNameCache.invalidate(file);
+	}
 
-		if (useExtendedFileAttributes) {
-			try {
-				xattr(writable(file)).clear();
-			} catch (Throwable e) {
-				debug.warning(cause("Failed to clear xattr", e));
-			}
-		}
+	@FunctionalInterface
+	private interface XattrReader {
+		Optional<Object> read(File file) throws Exception;
 	}
 
 }
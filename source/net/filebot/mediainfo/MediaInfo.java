@@ -7,8 +7,12 @@ import static net.filebot.util.RegularExpressions.*;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
@@ -20,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import com.sun.jna.Native;
 import com.sun.jna.Platform;
 import com.sun.jna.Pointer;
 import com.sun.jna.WString;
@@ -49,8 +54,8 @@ public class MediaInfo implements MediaCharacteristics {
 		String path = file.getCanonicalPath();
 
 		if (preferOpenViaBuffer(path)) {
-			try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-				if (openViaBuffer(raf)) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				if (openViaBuffer(channel)) {
 					return this;
 				}
 				throw new IOException("Failed to initialize media info buffer: " + path);
@@ -76,27 +81,71 @@ public class MediaInfo implements MediaCharacteristics {
 		return false;
 	}
 
-	private boolean openViaBuffer(RandomAccessFile f) throws IOException {
-		byte[] buffer = new byte[4 * 1024 * 1024]; // use large buffer to reduce JNA calls
-		int read = -1;
+	// use large buffer to reduce JNA calls
+	private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+	private static final long MAPPED_REGION_SIZE = 64 * 1024 * 1024;
 
-		if (0 == MediaInfoLibrary.INSTANCE.Open_Buffer_Init(handle, f.length(), 0)) {
+	// reuse direct buffer if the file cannot be memory-mapped
+	private static final ThreadLocal<ByteBuffer> directBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+	private boolean openViaBuffer(FileChannel channel) throws IOException {
+		long length = channel.size();
+
+		if (0 == MediaInfoLibrary.INSTANCE.Open_Buffer_Init(handle, length, 0)) {
 			return false;
 		}
 
-		do {
-			read = f.read(buffer);
-			int result = MediaInfoLibrary.INSTANCE.Open_Buffer_Continue(handle, buffer, read);
+		// memory-mapped files cannot be renamed or deleted on Windows until the mapping has been garbage collected
+		boolean mapped = !Platform.isWindows();
+
+		MappedByteBuffer region = null;
+		long regionPosition = 0;
+
+		for (long position = 0; position < length;) {
+			ByteBuffer chunk = null;
+
+			// pass slices of the memory-mapped file directly to native code
+			if (mapped) {
+				try {
+					if (region == null || position < regionPosition || position >= regionPosition + region.capacity()) {
+						regionPosition = position;
+						region = channel.map(MapMode.READ_ONLY, position, Math.min(MAPPED_REGION_SIZE, length - position));
+					}
+
+					int offset = (int) (position - regionPosition);
+					chunk = region.duplicate();
+					chunk.position(offset).limit(Math.min(region.capacity(), offset + BUFFER_SIZE));
+				} catch (IOException | UnsupportedOperationException e) {
+					debug.finest(message("Failed to map file", e));
+					mapped = false;
+				}
+			}
+
+			// read into direct buffer
+			if (chunk == null) {
+				chunk = directBuffer.get();
+				chunk.clear();
+
+				if (channel.read(chunk, position) <= 0) {
+					break;
+				}
+				chunk.flip();
+			}
+
+			int size = chunk.remaining();
+			int result = MediaInfoLibrary.INSTANCE.Open_Buffer_Continue(handle, Native.getDirectBufferPointer(chunk).share(chunk.position()), size);
 			if ((result & 8) == 8) {
 				break;
 			}
 
+			position += size;
+
 			long gotoPos = MediaInfoLibrary.INSTANCE.Open_Buffer_Continue_GoTo_Get(handle);
 			if (gotoPos >= 0) {
-				f.seek(gotoPos);
-				MediaInfoLibrary.INSTANCE.Open_Buffer_Init(handle, f.length(), gotoPos);
+				position = gotoPos;
+				MediaInfoLibrary.INSTANCE.Open_Buffer_Init(handle, length, gotoPos);
 			}
-		} while (read > 0);
+		}
 
 		MediaInfoLibrary.INSTANCE.Open_Buffer_Finalize(handle);
 		return true;
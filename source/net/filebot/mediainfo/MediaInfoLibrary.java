@@ -134,6 +134,11 @@ interface MediaInfoLibrary extends Library {
 	 */
 	int Open_Buffer_Continue(Pointer handle, byte[] buffer, int size);
 
+	/**
+	 * Open_Buffer_Continue (native memory)
+	 */
+	int Open_Buffer_Continue(Pointer handle, Pointer buffer, int size);
+
 	/**
 	 * Open_Buffer_Continue_GoTo_Get
 	 */
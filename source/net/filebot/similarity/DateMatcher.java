@@ -13,11 +13,15 @@ import java.time.format.TextStyle;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import net.filebot.web.SimpleDate;
 import one.util.streamex.StreamEx;
 
@@ -27,6 +31,9 @@ public class DateMatcher {
 
 	private final DatePattern[] patterns;
 
+	// the same file names are typically matched many times by different components
+	private final Cache<String, Optional<SimpleDate>> cache = Caffeine.newBuilder().maximumSize(10000).build();
+
 	public DateMatcher(DateFilter sanity, Locale... locale) {
 		// generate default date format patterns
 		String[] format = new String[7];
@@ -88,6 +95,15 @@ public class DateMatcher {
 	}
 
 	public SimpleDate match(CharSequence seq) {
+		// all patterns require at least one digit
+		if (!SeasonEpisodeMatcher.containsDigit(seq)) {
+			return null;
+		}
+
+		return cache.get(seq.toString(), s -> Optional.ofNullable(parse(s))).orElse(null);
+	}
+
+	protected SimpleDate parse(String seq) {
 		for (DatePattern pattern : patterns) {
 			SimpleDate match = pattern.match(seq);
 
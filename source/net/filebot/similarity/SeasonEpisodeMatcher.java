@@ -21,6 +21,9 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 public class SeasonEpisodeMatcher {
 
 	public static final SeasonEpisodeFilter LENIENT_SANITY = new SeasonEpisodeFilter(99, 999, 9999, 1970, 2100);
@@ -30,6 +33,9 @@ public class SeasonEpisodeMatcher {
 	private SeasonEpisodeParser[] patterns;
 	private Pattern seasonPattern;
 
+	// the same file names are typically matched many times by different components
+	private final Cache<String, List<SxE>> cache = Caffeine.newBuilder().maximumSize(10000).build();
+
 	public SeasonEpisodeMatcher(SeasonEpisodeFilter sanity, boolean strict) {
 		// define variables
 		SeasonEpisodePattern Season_00_Episode_00, S00E00SEQ, S00E00, SxE1_SxE2, SxE, Dot101, E01E02SEQ, EP0, Num101_TOKEN, E1of2, Num101_SUBSTRING;
@@ -164,6 +170,20 @@ public class SeasonEpisodeMatcher {
 	 * @return the matches returned by the first pattern that returns any matches for this string, or null if no pattern returned any matches
 	 */
 	public List<SxE> match(CharSequence name) {
+		// all patterns require at least one digit
+		if (!containsDigit(name)) {
+			return null;
+		}
+
+		List<SxE> match = cache.get(name.toString(), n -> {
+			List<SxE> m = parse(n);
+			return m == null ? emptyList() : unmodifiableList(m);
+		});
+
+		return match.isEmpty() ? null : new ArrayList<SxE>(match);
+	}
+
+	protected List<SxE> parse(String name) {
 		for (SeasonEpisodeParser pattern : patterns) {
 			List<SxE> match = pattern.match(name);
 
@@ -200,6 +220,16 @@ public class SeasonEpisodeMatcher {
 		return null;
 	}
 
+	protected static boolean containsDigit(CharSequence name) {
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c >= '0' && c <= '9') {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	protected List<String> tokenizeTail(File file) {
 		List<String> tail = new ArrayList<String>(2);
 		for (File f : listPathTail(file, 2, true)) {
@@ -0,0 +1,47 @@
+package net.filebot.subtitle;
+
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads lines from in-memory text without copying the text or using {@link java.util.Scanner} (i.e. line terminators are \r\n, \n, \r, \u2028, \u2029 and \u0085).
+ */
+public class LineReader {
+
+	private final CharSequence text;
+	private int position = 0;
+
+	public LineReader(CharSequence text) {
+		// CharBuffer.charAt() is relative to the current position
+		this.text = text instanceof CharBuffer ? ((CharBuffer) text).slice() : text;
+	}
+
+	public boolean hasNextLine() {
+		return position < text.length();
+	}
+
+	public String nextLine() {
+		if (!hasNextLine()) {
+			throw new NoSuchElementException("No line found");
+		}
+
+		int start = position;
+		int length = text.length();
+
+		for (int i = start; i < length; i++) {
+			char c = text.charAt(i);
+			if (isLineTerminator(c)) {
+				position = (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') ? i + 2 : i + 1;
+				return text.subSequence(start, i).toString();
+			}
+		}
+
+		position = length;
+		return text.subSequence(start, length).toString();
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+	}
+
+}
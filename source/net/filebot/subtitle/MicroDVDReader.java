@@ -5,14 +5,13 @@ import static net.filebot.util.StringUtilities.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 public class MicroDVDReader extends SubtitleReader {
 
 	private double fps = 23.976;
 
-	public MicroDVDReader(Scanner scanner) {
-		super(scanner);
+	public MicroDVDReader(CharSequence text) {
+		super(text);
 	}
 
 	@Override
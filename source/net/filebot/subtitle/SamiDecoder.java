@@ -17,7 +17,7 @@ import org.jsoup.nodes.Element;
 public class SamiDecoder implements SubtitleDecoder {
 
 	@Override
-	public Stream<SubtitleElement> decode(String file) {
+	public Stream<SubtitleElement> decode(CharSequence file) {
 		List<SubtitleElement> subtitles = new ArrayList<SubtitleElement>();
 
 		Matcher matcher = Pattern.compile("<SYNC(.*?)>", Pattern.CASE_INSENSITIVE).matcher(file);
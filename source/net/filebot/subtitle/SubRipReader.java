@@ -7,7 +7,6 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Scanner;
 import java.util.TimeZone;
 import java.util.regex.Pattern;
 
@@ -16,8 +15,8 @@ public class SubRipReader extends SubtitleReader {
 	private final DateFormat timeFormat;
 	private final Pattern tag;
 
-	public SubRipReader(Scanner scanner) {
-		super(scanner);
+	public SubRipReader(CharSequence text) {
+		super(text);
 
 		// format used to parse time stamps (e.g. 00:02:26,407 --> 00:02:31,356)
 		timeFormat = new SimpleDateFormat("HH:mm:ss,SSS", Locale.ROOT);
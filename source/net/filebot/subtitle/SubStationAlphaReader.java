@@ -6,7 +6,6 @@ import static java.util.Arrays.*;
 import java.text.DateFormat;
 import java.util.InputMismatchException;
 import java.util.List;
-import java.util.Scanner;
 import java.util.regex.Pattern;
 
 public class SubStationAlphaReader extends SubtitleReader {
@@ -21,8 +20,8 @@ public class SubStationAlphaReader extends SubtitleReader {
 	private int formatIndexEnd;
 	private int formatIndexText;
 
-	public SubStationAlphaReader(Scanner scanner) {
-		super(scanner);
+	public SubStationAlphaReader(CharSequence text) {
+		super(text);
 	}
 
 	private void readFormat() throws Exception {
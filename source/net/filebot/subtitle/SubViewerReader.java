@@ -7,7 +7,6 @@ import static net.filebot.util.StringUtilities.*;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.InputMismatchException;
-import java.util.Scanner;
 import java.util.regex.Pattern;
 
 public class SubViewerReader extends SubtitleReader {
@@ -15,8 +14,8 @@ public class SubViewerReader extends SubtitleReader {
 	private final DateFormat timeFormat = new SubtitleTimeFormat();
 	private final Pattern newline = compile(quote("[br]"), CASE_INSENSITIVE);
 
-	public SubViewerReader(Scanner scanner) {
-		super(scanner);
+	public SubViewerReader(CharSequence text) {
+		super(text);
 	}
 
 	@Override
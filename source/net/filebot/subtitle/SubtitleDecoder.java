@@ -4,6 +4,6 @@ import java.util.stream.Stream;
 
 public interface SubtitleDecoder {
 
-	Stream<SubtitleElement> decode(String file);
+	Stream<SubtitleElement> decode(CharSequence file);
 
 }
\ No newline at end of file
@@ -1,18 +1,18 @@
 
 package net.filebot.subtitle;
 
-import java.util.Scanner;
+import java.util.regex.Pattern;
 
 import net.filebot.MediaTypes;
 import net.filebot.util.FileUtilities.ExtensionFileFilter;
 
 public enum SubtitleFormat {
 
-	SubRip {
+	SubRip("^\\d+\\s*\\R\\s*\\d+:\\d+:\\d+,\\d+\\s*-->") {
 
 		@Override
 		public SubtitleDecoder getDecoder() {
-			return content -> new SubRipReader(new Scanner(content)).stream();
+			return content -> new SubRipReader(content).stream();
 		}
 
 		@Override
@@ -21,11 +21,11 @@ public enum SubtitleFormat {
 		}
 	},
 
-	MicroDVD {
+	MicroDVD("^[{]\\d+[}][{]\\d*[}]") {
 
 		@Override
 		public SubtitleDecoder getDecoder() {
-			return content -> new MicroDVDReader(new Scanner(content)).stream();
+			return content -> new MicroDVDReader(content).stream();
 		}
 
 		@Override
@@ -34,11 +34,11 @@ public enum SubtitleFormat {
 		}
 	},
 
-	SubViewer {
+	SubViewer("^\\d+:\\d+:\\d+[.]\\d+,\\d+:\\d+:\\d+[.]\\d+") {
 
 		@Override
 		public SubtitleDecoder getDecoder() {
-			return content -> new SubViewerReader(new Scanner(content)).stream();
+			return content -> new SubViewerReader(content).stream();
 		}
 
 		@Override
@@ -47,11 +47,11 @@ public enum SubtitleFormat {
 		}
 	},
 
-	SubStationAlpha {
+	SubStationAlpha("^\\[(Script Info|V4\\+? Styles|Events)\\]") {
 
 		@Override
 		public SubtitleDecoder getDecoder() {
-			return content -> new SubStationAlphaReader(new Scanner(content)).stream();
+			return content -> new SubStationAlphaReader(content).stream();
 		}
 
 		@Override
@@ -60,7 +60,7 @@ public enum SubtitleFormat {
 		}
 	},
 
-	SAMI {
+	SAMI("<SAMI\\b") {
 
 		@Override
 		public SubtitleDecoder getDecoder() {
@@ -73,8 +73,33 @@ public enum SubtitleFormat {
 		}
 	};
 
+	// maximum number of characters that are checked when detecting the subtitle format
+	private static final int HEADER_SIZE = 4096;
+
+	private final Pattern header;
+
+	private SubtitleFormat(String header) {
+		this.header = Pattern.compile(header, Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
+	}
+
 	public abstract SubtitleDecoder getDecoder();
 
 	public abstract ExtensionFileFilter getFilter();
 
+	/**
+	 * Quick check if the beginning of the given subtitle text looks like this subtitle format, without decoding any subtitle elements.
+	 */
+	public boolean isHeader(CharSequence content) {
+		return header.matcher(content.subSequence(0, Math.min(content.length(), HEADER_SIZE))).find();
+	}
+
+	public static SubtitleFormat forContent(CharSequence content) {
+		for (SubtitleFormat format : values()) {
+			if (format.isHeader(content)) {
+				return format;
+			}
+		}
+		return null;
+	}
+
 }
@@ -6,7 +6,6 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
@@ -14,11 +13,11 @@ import java.util.stream.StreamSupport;
 
 public abstract class SubtitleReader implements Iterator<SubtitleElement>, Closeable {
 
-	protected Scanner scanner;
+	protected LineReader scanner;
 	protected SubtitleElement current;
 
-	public SubtitleReader(Scanner scanner) {
-		this.scanner = scanner;
+	public SubtitleReader(CharSequence text) {
+		this.scanner = new LineReader(text);
 	}
 
 	protected abstract SubtitleElement readNext() throws Exception;
@@ -52,7 +51,7 @@ public abstract class SubtitleReader implements Iterator<SubtitleElement>, Close
 
 	@Override
 	public void close() throws IOException {
-		scanner.close();
+		// nothing to close
 	}
 
 	public Stream<SubtitleElement> stream() {
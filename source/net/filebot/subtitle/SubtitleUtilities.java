@@ -14,27 +14,37 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.io.IOUtils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.optimaize.langdetect.DetectedLanguage;
 import com.optimaize.langdetect.LanguageDetector;
 import com.optimaize.langdetect.LanguageDetectorBuilder;
@@ -55,8 +65,11 @@ import net.filebot.similarity.SimilarityComparator;
 import net.filebot.similarity.SimilarityMetric;
 import net.filebot.util.ByteBufferInputStream;
 import net.filebot.util.ByteBufferOutputStream;
+import net.filebot.util.SystemProperty;
 import net.filebot.vfs.ArchiveType;
 import net.filebot.vfs.MemoryFile;
+import net.filebot.web.Datasource;
+import net.filebot.web.FloodLimit;
 import net.filebot.web.Movie;
 import net.filebot.web.SubtitleDescriptor;
 import net.filebot.web.SubtitleProvider;
@@ -315,26 +328,36 @@ public final class SubtitleUtilities {
 	 * Detect charset and parse subtitle file even if extension is invalid
 	 */
 	public static List<SubtitleElement> decodeSubtitles(MemoryFile file) throws IOException {
-		// gather all formats, put likely formats first
-		LinkedList<SubtitleFormat> likelyFormats = new LinkedList<SubtitleFormat>();
+		return streamSubtitles(file).collect(toList());
+	}
+
+	public static Stream<SubtitleElement> streamSubtitles(MemoryFile file) throws IOException {
+		// decode bytes and beware of byte-order marks
+		Reader reader = createTextReader(new ByteBufferInputStream(file.getData()), true, UTF_8);
+		CharBuffer content = CharBuffer.wrap(IOUtils.toCharArray(reader));
+
+		// gather all formats, put the format that matches the file header first and likely formats next
+		Set<SubtitleFormat> likelyFormats = new LinkedHashSet<SubtitleFormat>();
+
+		SubtitleFormat sniffedFormat = SubtitleFormat.forContent(content);
+		if (sniffedFormat != null) {
+			likelyFormats.add(sniffedFormat);
+		}
 
 		for (SubtitleFormat format : SubtitleFormat.values()) {
-			if (format.getFilter().accept(file.getName()))
-				likelyFormats.addFirst(format);
-			else
-				likelyFormats.addLast(format);
+			if (format.getFilter().accept(file.getName())) {
+				likelyFormats.add(format);
+			}
 		}
 
-		// decode bytes and beware of byte-order marks
-		Reader reader = createTextReader(new ByteBufferInputStream(file.getData()), true, UTF_8);
-		String content = IOUtils.toString(reader);
+		likelyFormats.addAll(EnumSet.allOf(SubtitleFormat.class));
 
 		// decode subtitle file with the first reader that seems to work
 		for (SubtitleFormat format : likelyFormats) {
-			List<SubtitleElement> subtitles = format.getDecoder().decode(content).collect(toList());
+			Iterator<SubtitleElement> subtitles = format.getDecoder().decode(content).iterator();
 
-			if (subtitles.size() > 0) {
-				return subtitles;
+			if (subtitles.hasNext()) {
+				return StreamSupport.stream(Spliterators.spliteratorUnknownSize(subtitles, Spliterator.ORDERED), false);
 			}
 		}
 
@@ -353,7 +376,11 @@ public final class SubtitleUtilities {
 		if (outputFormat == SubtitleFormat.SubRip) {
 			// convert to target format and target encoding
 			try (SubRipWriter out = new SubRipWriter(writer)) {
-				for (SubtitleElement it : decodeSubtitles(file)) {
+				// convert subtitle elements one by one as they are decoded
+				Iterator<SubtitleElement> elements = streamSubtitles(file).iterator();
+
+				while (elements.hasNext()) {
+					SubtitleElement it = elements.next();
 					if (it.isEmpty()) {
 						debug.warning(message("Subtitle element is empty", it));
 						continue;
@@ -427,13 +454,10 @@ public final class SubtitleUtilities {
 		ArchiveType type = ArchiveType.forName(descriptor.getType());
 
 		if (type != ArchiveType.UNKOWN) {
-			// extract subtitle from archive
-			Iterator<MemoryFile> it = type.fromData(data).iterator();
-			while (it.hasNext()) {
-				MemoryFile entry = it.next();
-				if (SUBTITLE_FILES.accept(entry.getName())) {
-					return entry;
-				}
+			// extract first subtitle from archive (and skip over all other entries without extracting them)
+			Optional<MemoryFile> file = type.first(data, SUBTITLE_FILES::accept);
+			if (file.isPresent()) {
+				return file.get();
 			}
 		}
 
@@ -441,6 +465,24 @@ public final class SubtitleUtilities {
 		return new MemoryFile(descriptor.getPath(), data);
 	}
 
+	private static final Map<String, FloodLimit> subtitleDownloadLimits = new ConcurrentHashMap<String, FloodLimit>();
+
+	public static FloodLimit getSubtitleDownloadLimit(Datasource service) {
+		// request limit is shared by all concurrent downloads from the same subtitle provider
+		return subtitleDownloadLimits.computeIfAbsent(service.getIdentifier(), k -> {
+			return new FloodLimit(SystemProperty.of("net.filebot.subtitle.downloadLimit", Integer::parseInt, 20).get(), 10, TimeUnit.SECONDS);
+		});
+	}
+
+	private static final Map<String, Semaphore> subtitleRequestLimits = new ConcurrentHashMap<String, Semaphore>();
+
+	public static Semaphore getSubtitleRequestLimit(Datasource service) {
+		// number of concurrent lookups and downloads is shared by all requests to the same subtitle provider
+		return subtitleRequestLimits.computeIfAbsent(service.getIdentifier(), k -> {
+			return new Semaphore(SystemProperty.of("net.filebot.subtitle.concurrentRequests", Integer::parseInt, 4).get(), true);
+		});
+	}
+
 	public static Language detectSubtitleLanguage(File file) throws IOException {
 		// grep language from filename
 		Locale languageTag = releaseInfo.getSubtitleLanguageTag(getName(file));
@@ -466,24 +508,58 @@ public final class SubtitleUtilities {
 		return null;
 	}
 
+	// detect language from a growing sample of subtitle lines and stop early once the most likely language is certain enough
+	private static final int LANGUAGE_SAMPLE_MIN_SIZE = 32;
+	private static final int LANGUAGE_SAMPLE_MAX_SIZE = 512;
+	private static final double LANGUAGE_CONFIDENCE_THRESHOLD = 0.99;
+
+	private static final Cache<String, List<DetectedLanguage>> languageCache = Caffeine.newBuilder().maximumSize(1000).build();
+
 	public static List<DetectedLanguage> detectSubtitleLanguage(MemoryFile file) throws IOException {
-		// decode subtitles
-		String text = decodeSubtitles(file).stream().map(SubtitleElement::getText).collect(Collectors.joining("\n"));
+		// same subtitle content yields the same result
+		String key = md5(file.getData());
+
+		List<DetectedLanguage> options = languageCache.getIfPresent(key);
+		if (options == null) {
+			options = unmodifiableList(detectTextLanguage(streamSubtitles(file).map(SubtitleElement::getText).iterator()));
+			languageCache.put(key, options);
+		}
+		return options;
+	}
+
+	private static List<DetectedLanguage> detectTextLanguage(Iterator<String> lines) throws IOException {
+		LanguageDetector detector = getLanguageDetector();
+
+		StringBuilder sample = new StringBuilder();
+		List<DetectedLanguage> options = emptyList();
+
+		for (int size = 0, limit = LANGUAGE_SAMPLE_MIN_SIZE; lines.hasNext() && size < LANGUAGE_SAMPLE_MAX_SIZE; limit *= 2) {
+			// double sample size for each pass
+			while (lines.hasNext() && size < limit) {
+				sample.append(lines.next()).append('\n');
+				size++;
+			}
+
+			options = detector.getProbabilities(sample);
+
+			if (options.size() > 0 && options.get(0).getProbability() >= LANGUAGE_CONFIDENCE_THRESHOLD) {
+				break;
+			}
+		}
 
-		// detect text language
-		return createLanguageDetector().getProbabilities(text);
+		return options;
 	}
 
-	private static LanguageDetectorBuilder languageDetector;
+	private static LanguageDetector languageDetector;
 
-	private static LanguageDetector createLanguageDetector() throws IOException {
+	private static synchronized LanguageDetector getLanguageDetector() throws IOException {
 		if (languageDetector == null) {
-			// load all language profiles and build language detector
+			// load all language profiles and build language detector (immutable and thread-safe)
 			List<LdLocale> languages = BuiltInLanguages.getLanguages().stream().filter(lc -> Language.getLanguage(lc.getLanguage()) != null).collect(Collectors.toList());
 			List<LanguageProfile> languageProfiles = new LanguageProfileReader().readBuiltIn(languages);
-			languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard()).withProfiles(languageProfiles);
+			languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard()).withProfiles(languageProfiles).build();
 		}
-		return languageDetector.build();
+		return languageDetector;
 	}
 
 	private SubtitleUtilities() {
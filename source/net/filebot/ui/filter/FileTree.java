@@ -3,18 +3,26 @@ package net.filebot.ui.filter;
 import static java.util.Collections.*;
 import static java.util.stream.Collectors.*;
 import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
+import static net.filebot.util.FileUtilities.*;
 import static net.filebot.util.ui.SwingUI.*;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
 import javax.swing.AbstractAction;
@@ -23,6 +31,8 @@ import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 import javax.swing.JTree;
 import javax.swing.SwingUtilities;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
@@ -32,12 +42,16 @@ import net.filebot.ResourceManager;
 import net.filebot.UserFiles;
 import net.filebot.ui.PanelBuilder;
 import net.filebot.ui.transfer.FileTransferable;
+import net.filebot.util.DefaultThreadFactory;
+import net.filebot.util.FastFile;
 import net.filebot.util.FilterIterator;
 import net.filebot.util.TreeIterator;
 import net.filebot.util.ui.SwingEventBus;
 
 public class FileTree extends JTree {
 
+	private static final ExecutorService directoryLoader = Executors.newFixedThreadPool(getPreferredThreadPoolSize(), new DefaultThreadFactory("FileTreeLoader", Thread.MIN_PRIORITY, true));
+
 	public FileTree() {
 		super(new DefaultTreeModel(new FolderNode()));
 		getSelectionModel().setSelectionMode(TreeSelectionModel.DISCONTIGUOUS_TREE_SELECTION);
@@ -49,6 +63,7 @@ public class FileTree extends JTree {
 		setLargeModel(true);
 
 		addMouseListener(new ExpandCollapsePopupListener());
+		addTreeWillExpandListener(new DirectoryExpansionListener());
 	}
 
 	@Override
@@ -89,6 +104,137 @@ public class FileTree extends JTree {
 		}
 	}
 
+	private boolean isAttached(TreePath path) {
+		return getModel().getRoot() == path.getPathComponent(0);
+	}
+
+	private void loadChildren(TreePath path) {
+		DirectoryNode node = (DirectoryNode) path.getLastPathComponent();
+
+		if (node.isLoaded() || node.loading) {
+			return;
+		}
+
+		node.loading = true;
+
+		directoryLoader.execute(() -> {
+			// tree may have been cleared or reloaded in the meantime
+			if (!isAttached(path)) {
+				return;
+			}
+
+			List<TreeNode> children = getChildNodes(node.getFile());
+
+			SwingUtilities.invokeLater(() -> {
+				node.loading = false;
+
+				if (!isAttached(path)) {
+					return;
+				}
+
+				node.setChildren(children);
+
+				if (children.isEmpty()) {
+					getModel().nodeChanged(node);
+				} else {
+					getModel().nodesWereInserted(node, range(children.size()));
+				}
+
+				// load child counts of the new sub-folders in the background
+				children.stream().filter(DirectoryNode.class::isInstance).forEach(it -> countChildren(path.pathByAddingChild(it)));
+			});
+		});
+	}
+
+	private void countChildren(TreePath path) {
+		DirectoryNode node = (DirectoryNode) path.getLastPathComponent();
+
+		directoryLoader.execute(() -> {
+			if (!isAttached(path)) {
+				return;
+			}
+
+			node.childCount = countChildren(node.getFile());
+
+			SwingUtilities.invokeLater(() -> {
+				if (isAttached(path)) {
+					getModel().nodeChanged(node);
+				}
+			});
+		});
+	}
+
+	private static List<TreeNode> getChildNodes(File folder) {
+		List<File> folders = new ArrayList<File>();
+		List<File> files = new ArrayList<File>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder.toPath())) {
+			for (Path it : stream) {
+				// use fast file to minimize system calls like length(), isDirectory(), isFile(), ...
+				File f = new FastFile(it.toFile());
+				if (f.isHidden()) {
+					continue;
+				}
+
+				if (f.isDirectory()) {
+					folders.add(f);
+				} else {
+					files.add(f);
+				}
+			}
+		} catch (Exception e) {
+			debug.warning(cause("Failed to list folder: " + folder, e));
+		}
+
+		folders.sort(HUMAN_NAME_ORDER);
+		files.sort(HUMAN_NAME_ORDER);
+
+		// folders first
+		List<TreeNode> nodes = new ArrayList<TreeNode>(folders.size() + files.size());
+		folders.forEach(f -> nodes.add(new DirectoryNode(f)));
+		files.forEach(f -> nodes.add(new FileNode(f)));
+		return nodes;
+	}
+
+	private static int countChildren(File folder) {
+		int count = 0;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder.toPath())) {
+			for (Path it : stream) {
+				if (NOT_HIDDEN.accept(it.toFile())) {
+					count++;
+				}
+			}
+		} catch (Exception e) {
+			debug.warning(cause("Failed to list folder: " + folder, e));
+		}
+
+		return count;
+	}
+
+	private static int[] range(int size) {
+		int[] indices = new int[size];
+		for (int i = 0; i < size; i++) {
+			indices[i] = i;
+		}
+		return indices;
+	}
+
+	private class DirectoryExpansionListener implements TreeWillExpandListener {
+
+		@Override
+		public void treeWillExpand(TreeExpansionEvent event) {
+			if (event.getPath().getLastPathComponent() instanceof DirectoryNode) {
+				loadChildren(event.getPath());
+			}
+		}
+
+		@Override
+		public void treeWillCollapse(TreeExpansionEvent event) {
+			// nothing to do
+		}
+	}
+
 	private class OpenExpandCollapsePopup extends JPopupMenu {
 
 		public OpenExpandCollapsePopup() {
@@ -130,7 +276,9 @@ public class FileTree extends JTree {
 		}
 
 		private void collectFiles(Object node, Collection<File> files) {
-			if (node instanceof FileNode) {
+			if (node instanceof DirectoryNode && !((DirectoryNode) node).isLoaded()) {
+				files.add(((DirectoryNode) node).getFile()); // folder has not been loaded yet
+			} else if (node instanceof FileNode) {
 				files.add(((FileNode) node).getFile());
 			} else if (node instanceof FolderNode) {
 				for (Object it : ((FolderNode) node).getChildren()) {
@@ -298,7 +446,7 @@ public class FileTree extends JTree {
 		private final File file;
 
 		private final String title;
-		private final List<TreeNode> children;
+		private List<TreeNode> children;
 
 		public FolderNode() {
 			this(emptyList()); // empty root node
@@ -316,6 +464,8 @@ public class FileTree extends JTree {
 			this.file = file;
 			this.title = title;
 			this.children = children;
+
+			adopt(children);
 		}
 
 		public File getFile() {
@@ -331,6 +481,21 @@ public class FileTree extends JTree {
 			return children;
 		}
 
+		protected void setChildren(List<TreeNode> children) {
+			this.children = children;
+
+			adopt(children);
+		}
+
+		private void adopt(List<TreeNode> children) {
+			// tree model events require the path to the root node
+			for (TreeNode node : children) {
+				if (node instanceof AbstractTreeNode) {
+					((AbstractTreeNode) node).setParent(this);
+				}
+			}
+		}
+
 		@Override
 		public Enumeration<? extends TreeNode> children() {
 			return enumeration(children);
@@ -381,6 +546,11 @@ public class FileTree extends JTree {
 						return ((FileNode) node).getFile();
 					}
 
+					// folders that have not been loaded yet stand for all of their files
+					if (node instanceof DirectoryNode && !((DirectoryNode) node).isLoaded()) {
+						return ((DirectoryNode) node).getFile();
+					}
+
 					// filter out non-file nodes
 					return null;
 				}
@@ -388,4 +558,43 @@ public class FileTree extends JTree {
 		}
 	}
 
+	/**
+	 * Folder node that lists its children only when it is expanded for the first time.
+	 */
+	public static class DirectoryNode extends FolderNode {
+
+		private boolean loaded = false;
+		private boolean loading = false;
+
+		// number of children or -1 if unknown
+		private volatile int childCount = -1;
+
+		public DirectoryNode(File folder) {
+			super(folder, getFolderName(folder), emptyList());
+		}
+
+		public boolean isLoaded() {
+			return loaded;
+		}
+
+		@Override
+		protected void setChildren(List<TreeNode> children) {
+			super.setChildren(children);
+			this.childCount = children.size();
+			this.loaded = true;
+		}
+
+		@Override
+		public boolean isLeaf() {
+			// display expand buttons until we know that the folder is empty
+			return childCount == 0;
+		}
+
+		@Override
+		public String toString() {
+			int count = childCount;
+			return count < 0 ? super.toString() : String.format("%s (%,d)", super.toString(), count);
+		}
+	}
+
 }
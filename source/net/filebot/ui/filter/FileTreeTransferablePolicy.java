@@ -3,19 +3,16 @@ package net.filebot.ui.filter;
 import static net.filebot.Logging.*;
 import static net.filebot.Settings.*;
 import static net.filebot.util.ExceptionUtilities.*;
-import static net.filebot.util.FileUtilities.*;
 import static net.filebot.util.ui.SwingUI.*;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.CancellationException;
 import java.util.logging.Level;
 
 import javax.swing.tree.TreeNode;
 
 import net.filebot.platform.mac.MacAppUtilities;
+import net.filebot.ui.filter.FileTree.DirectoryNode;
 import net.filebot.ui.filter.FileTree.FileNode;
 import net.filebot.ui.filter.FileTree.FolderNode;
 import net.filebot.ui.transfer.BackgroundFileTransferablePolicy;
@@ -58,34 +55,16 @@ class FileTreeTransferablePolicy extends BackgroundFileTransferablePolicy<TreeNo
 			MacAppUtilities.askUnlockFolders(getWindow(tree), files);
 		}
 
-		try {
-			// use fast file to minimize system calls like length(), isDirectory(), isFile(), ...
-			TreeNode[] node = files.stream().map(FastFile::new).map(this::getTreeNode).toArray(TreeNode[]::new);
+		// folders are loaded lazily when they are expanded (and the tools walk the file tree themselves)
+		TreeNode[] node = files.stream().map(FastFile::new).map(this::getTreeNode).toArray(TreeNode[]::new);
 
-			// publish on EDT
-			publish(node);
-		} catch (CancellationException e) {
-			// supposed to happen if background execution was aborted
-		}
+		// publish on EDT
+		publish(node);
 	}
 
 	private TreeNode getTreeNode(File file) {
-		if (Thread.interrupted()) {
-			throw new CancellationException();
-		}
-
 		if (file.isDirectory()) {
-			LinkedList<TreeNode> children = new LinkedList<TreeNode>();
-
-			for (File f : getChildren(file, NOT_HIDDEN, HUMAN_NAME_ORDER)) {
-				if (f.isDirectory()) {
-					children.addFirst(getTreeNode(f));
-				} else {
-					children.addLast(getTreeNode(f));
-				}
-			}
-
-			return new FolderNode(file, getFolderName(file), new ArrayList<TreeNode>(children));
+			return new DirectoryNode(file);
 		}
 
 		return new FileNode(file);
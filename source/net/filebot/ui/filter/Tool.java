@@ -27,6 +27,8 @@ abstract class Tool<M> extends JComponent {
 
 	private UpdateModelTask updateTask;
 
+	private final ThreadLocal<UpdateModelTask> threadLocalTask = new ThreadLocal<UpdateModelTask>();
+
 	public Tool(String name) {
 		setName(name);
 	}
@@ -56,7 +58,21 @@ abstract class Tool<M> extends JComponent {
 
 	protected abstract void setModel(M model);
 
-	private class UpdateModelTask extends SwingWorker<M, Void> {
+	/**
+	 * Display intermediate results while {@link #createModelInBackground(List)} is still running.
+	 */
+	protected final void publish(M model) {
+		UpdateModelTask task = threadLocalTask.get();
+
+		if (task == null) {
+			// fail if a non-background-worker thread is trying to access the thread-local task object
+			throw new IllegalThreadStateException("Illegal access thread");
+		}
+
+		task.offer(model);
+	}
+
+	private class UpdateModelTask extends SwingWorker<M, M> {
 
 		private final List<File> root;
 
@@ -66,7 +82,28 @@ abstract class Tool<M> extends JComponent {
 
 		@Override
 		protected M doInBackground() throws Exception {
-			return createModelInBackground(root);
+			// associate this task with the current (background) thread
+			threadLocalTask.set(this);
+
+			try {
+				return createModelInBackground(root);
+			} finally {
+				threadLocalTask.remove();
+			}
+		}
+
+		public void offer(M model) {
+			if (!isCancelled()) {
+				publish(model);
+			}
+		}
+
+		@Override
+		protected void process(List<M> chunks) {
+			// only the most recent intermediate model is of interest
+			if (this == updateTask && !isCancelled()) {
+				setModel(chunks.get(chunks.size() - 1));
+			}
 		}
 
 		@Override
@@ -100,8 +137,12 @@ abstract class Tool<M> extends JComponent {
 		List<File> selection = listFiles(files, FILES, null);
 		long size = selection.stream().mapToLong(File::length).sum();
 
+		return createStatisticsNode(name, files, selection.size(), size);
+	}
+
+	protected FolderNode createStatisticsNode(String name, List<File> files, int count, long size) {
 		// set node text (e.g. txt (1 file, 42 Byte))
-		String title = String.format("%s (%,d %s, %s)", name, selection.size(), selection.size() == 1 ? "file" : "files", FileUtilities.formatSize(size));
+		String title = String.format("%s (%,d %s, %s)", name, count, count == 1 ? "file" : "files", FileUtilities.formatSize(size));
 
 		return new FolderNode(title, createFileNodes(files));
 	}
@@ -1,5 +1,6 @@
 package net.filebot.ui.filter;
 
+import static java.util.Arrays.*;
 import static java.util.Collections.*;
 import static javax.swing.BorderFactory.*;
 import static net.filebot.util.FileUtilities.*;
@@ -7,10 +8,11 @@ import static net.filebot.util.FileUtilities.*;
 import java.io.File;
 import java.io.FileFilter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.CancellationException;
@@ -19,6 +21,7 @@ import javax.swing.JScrollPane;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
 
 import net.filebot.MediaTypes;
 import net.filebot.media.MediaDetection;
@@ -50,39 +53,80 @@ class TypeTool extends Tool<TreeModel> {
 			return new DefaultTreeModel(new FolderNode("Types", emptyList()));
 		}
 
-		List<File> filesAndFolders = listFiles(root, NOT_HIDDEN, HUMAN_NAME_ORDER);
+		Map<String, FileFilter> types = getMetaTypes();
 
-		List<TreeNode> groups = new ArrayList<TreeNode>();
+		Map<String, Group> typeGroups = new LinkedHashMap<String, Group>();
+		types.keySet().forEach(k -> typeGroups.put(k, new Group()));
 
-		for (Entry<String, FileFilter> it : getMetaTypes().entrySet()) {
-			List<File> selection = filter(filesAndFolders, it.getValue());
-			if (selection.size() > 0) {
-				groups.add(createStatisticsNode(it.getKey(), selection));
-			}
+		SortedMap<String, Group> extensionGroups = new TreeMap<String, Group>(String.CASE_INSENSITIVE_ORDER);
 
+		long[] lastUpdate = { System.currentTimeMillis() };
+
+		// compute statistics while walking the file tree and display intermediate statistics every now and then
+		walkFiles(root.toArray(new File[0]), FILE_WALK_MAX_DEPTH, NOT_HIDDEN, HUMAN_NAME_ORDER, f -> {
 			if (Thread.interrupted()) {
 				throw new CancellationException();
 			}
-		}
 
-		SortedMap<String, TreeNode> extensionGroups = new TreeMap<String, TreeNode>(String.CASE_INSENSITIVE_ORDER);
-
-		for (Entry<String, List<File>> it : mapByExtension(filter(filesAndFolders, FILES)).entrySet()) {
-			if (it.getKey() != null) {
-				extensionGroups.put(it.getKey(), createStatisticsNode(it.getKey(), it.getValue()));
+			types.forEach((k, filter) -> {
+				if (filter.accept(f)) {
+					typeGroups.get(k).add(f);
+				}
+			});
+
+			if (f.isFile()) {
+				String extension = getExtension(f);
+				if (extension != null) {
+					extensionGroups.computeIfAbsent(extension.toLowerCase(), k -> new Group()).add(f);
+				}
 			}
 
-			if (Thread.interrupted()) {
-				throw new CancellationException();
+			long now = System.currentTimeMillis();
+			if (now - lastUpdate[0] > UPDATE_INTERVAL) {
+				lastUpdate[0] = now;
+				publish(createModel(typeGroups, extensionGroups, false));
 			}
-		}
+		});
 
-		groups.addAll(extensionGroups.values());
+		return createModel(typeGroups, extensionGroups, true);
+	}
+
+	private static final long UPDATE_INTERVAL = 1000;
+
+	private TreeModel createModel(Map<String, Group> typeGroups, Map<String, Group> extensionGroups, boolean complete) {
+		List<TreeNode> groups = new ArrayList<TreeNode>();
+
+		for (Map<String, Group> it : asList(typeGroups, extensionGroups)) {
+			it.forEach((k, group) -> {
+				if (group.files.size() > 0) {
+					// intermediate results only display counts and sizes, file nodes are created only once for the final result
+					groups.add(createStatisticsNode(k, complete ? group.files : emptyList(), group.count, group.size));
+				}
+			});
+		}
 
 		// create tree model
 		return new DefaultTreeModel(new FolderNode("Types", groups));
 	}
 
+	private static class Group {
+
+		private final List<File> files = new ArrayList<File>();
+
+		private int count = 0;
+		private long size = 0;
+
+		public void add(File file) {
+			files.add(file);
+
+			// count all the files within folders as well
+			for (File f : file.isFile() ? singletonList(file) : listFiles(file, FILES)) {
+				count++;
+				size += f.length();
+			}
+		}
+	}
+
 	public Map<String, FileFilter> getMetaTypes() {
 		Map<String, FileFilter> types = new LinkedHashMap<String, FileFilter>();
 		types.put("Movie", f -> MediaDetection.isMovie(f, true));
@@ -100,7 +144,32 @@ class TypeTool extends Tool<TreeModel> {
 
 	@Override
 	protected void setModel(TreeModel model) {
+		// keep groups expanded when intermediate results are replaced
+		Set<String> expanded = new HashSet<String>();
+		TreeModel previous = tree.getModel();
+
+		for (int i = 0; i < previous.getChildCount(previous.getRoot()); i++) {
+			Object node = previous.getChild(previous.getRoot(), i);
+			if (tree.isExpanded(new TreePath(new Object[] { previous.getRoot(), node }))) {
+				expanded.add(getGroupName(node));
+			}
+		}
+
 		tree.setModel(model);
+
+		for (int i = 0; i < model.getChildCount(model.getRoot()); i++) {
+			Object node = model.getChild(model.getRoot(), i);
+			if (expanded.contains(getGroupName(node))) {
+				tree.expandPath(new TreePath(new Object[] { model.getRoot(), node }));
+			}
+		}
+	}
+
+	private String getGroupName(Object node) {
+		// e.g. txt (1 file, 42 Byte)
+		String title = node.toString();
+		int i = title.lastIndexOf(" (");
+		return i < 0 ? title : title.substring(0, i);
 	}
 
 }
@@ -5,7 +5,6 @@ import static java.util.Collections.*;
 import static java.util.Comparator.*;
 import static java.util.stream.Collectors.*;
 import static net.filebot.Logging.*;
-import static net.filebot.Settings.*;
 import static net.filebot.WebServices.*;
 import static net.filebot.util.ExceptionUtilities.*;
 
@@ -18,7 +17,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.stream.Stream;
@@ -38,8 +36,8 @@ class AutoDetectMatcher implements AutoCompleteMatcher {
 
 	@Override
 	public List<Match<File, ?>> match(Collection<File> files, boolean strict, SortOrder order, Locale locale, boolean autodetection, Component parent) throws Exception {
-		// can't use parallel stream because default fork/join pool doesn't play well with the security manager
-		ExecutorService workerThreadPool = Executors.newFixedThreadPool(getPreferredThreadPoolSize());
+		// can't use parallel stream because default fork/join pool doesn't play well with the security manager (interactive matches take precedence over batch processing)
+		ExecutorService workerThreadPool = matchThreadPool.newTaskGroup(Thread.MAX_PRIORITY);
 
 		try {
 			// match groups in parallel
@@ -5,7 +5,6 @@ import static java.util.Comparator.*;
 import static java.util.stream.Collectors.*;
 import static javax.swing.BorderFactory.*;
 import static net.filebot.MediaTypes.*;
-import static net.filebot.Settings.*;
 import static net.filebot.WebServices.*;
 import static net.filebot.media.MediaDetection.*;
 import static net.filebot.similarity.CommonSequenceMatcher.*;
@@ -28,7 +27,6 @@ import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.prefs.Preferences;
 import java.util.regex.Pattern;
@@ -80,7 +78,8 @@ class EpisodeListMatcher implements AutoCompleteMatcher {
 		// merge episode matches
 		List<Match<File, ?>> matches = new ArrayList<Match<File, ?>>();
 
-		ExecutorService workerThreadPool = Executors.newFixedThreadPool(getPreferredThreadPoolSize());
+		// interactive matches take precedence over batch processing
+		ExecutorService workerThreadPool = matchThreadPool.newTaskGroup(Thread.MAX_PRIORITY);
 		try {
 			// detect series names and create episode list fetch tasks
 			List<Future<List<Match<File, ?>>>> tasks = new ArrayList<Future<List<Match<File, ?>>>>();
@@ -57,17 +57,20 @@ class ExpressionFormatter implements MatchFormatter {
 	}
 
 	@Override
-	public synchronized String format(Match<?, ?> match, boolean extension, Map<?, ?> context) throws ScriptException {
+	public String format(Match<?, ?> match, boolean extension, Map<?, ?> context) throws ScriptException {
+		// evaluate the expression using the given bindings (expression format is thread-safe)
+		Object bindingBean = new MediaBindingBean(match.getValue(), (File) match.getCandidate(), (Map) context);
+		String destination = getFormat().format(bindingBean);
+
+		return getPath((File) match.getCandidate(), destination);
+	}
+
+	private synchronized ExpressionFileFormat getFormat() throws ScriptException {
 		// lazy initialize script engine
 		if (format == null) {
 			format = new ExpressionFileFormat(expression);
 		}
-
-		// evaluate the expression using the given bindings
-		Object bindingBean = new MediaBindingBean(match.getValue(), (File) match.getCandidate(), (Map) context);
-		String destination = format.format(bindingBean);
-
-		return getPath((File) match.getCandidate(), destination);
+		return format;
 	}
 
 	private String getPath(File source, String destination) {
@@ -6,7 +6,7 @@ import static java.util.stream.Collectors.*;
 import static javax.swing.BorderFactory.*;
 import static net.filebot.Logging.*;
 import static net.filebot.MediaTypes.*;
-import static net.filebot.Settings.*;
+import static net.filebot.WebServices.*;
 import static net.filebot.media.MediaDetection.*;
 import static net.filebot.similarity.CommonSequenceMatcher.*;
 import static net.filebot.similarity.Normalization.*;
@@ -32,7 +32,6 @@ import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.prefs.Preferences;
@@ -152,8 +151,8 @@ class MovieMatcher implements AutoCompleteMatcher {
 		movieMatchFiles.addAll(filter(files, FOLDERS));
 		movieMatchFiles.addAll(filter(orphanedFiles, SUBTITLE_FILES)); // run movie detection only on orphaned subtitle files
 
-		// match remaining movies file by file in parallel
-		ExecutorService workerThreadPool = Executors.newFixedThreadPool(getPreferredThreadPoolSize());
+		// match remaining movies file by file in parallel (and ahead of any batch processing since the user is waiting for the results)
+		ExecutorService workerThreadPool = matchThreadPool.newTaskGroup(Thread.MAX_PRIORITY);
 		try {
 			List<Future<Map<File, List<Movie>>>> tasks = movieMatchFiles.stream().filter(f -> movieByFile.get(f) == null).map(f -> {
 				return workerThreadPool.submit(() -> {
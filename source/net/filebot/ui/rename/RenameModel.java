@@ -162,7 +162,7 @@ public class RenameModel extends MatchModel<Object, File> {
 
 		private final List<FormattedFuture> futures = new ArrayList<FormattedFuture>();
 
-		private final Executor backgroundFormatter = new ThreadPoolExecutor(0, 1, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		private final Executor backgroundFormatter = createBackgroundFormatter();
 
 		public FormattedFutureEventList(EventList<Object> source) {
 			super(source);
@@ -277,6 +277,14 @@ public class RenameModel extends MatchModel<Object, File> {
 			updates.commitEvent();
 		}
 
+		private Executor createBackgroundFormatter() {
+			// expression formats are thread-safe, so we can format in parallel
+			int threads = Runtime.getRuntime().availableProcessors();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+
 		private void submit(FormattedFuture future) {
 			// observe and enqueue worker task
 			future.addPropertyChangeListener(futureListener);
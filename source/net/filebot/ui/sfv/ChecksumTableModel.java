@@ -7,12 +7,14 @@ import java.io.File;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.swing.Timer;
 import javax.swing.table.AbstractTableModel;
 
 import net.filebot.hash.HashType;
@@ -231,12 +233,7 @@ class ChecksumTableModel extends AbstractTableModel {
 
 		@Override
 		public void propertyChange(PropertyChangeEvent evt) {
-			int row = getRowIndex((ChecksumRow) evt.getSource());
-
-			if (row >= 0) {
-				// update row
-				fireTableRowsUpdated(row, row);
-			}
+			updateRow(getRowIndex((ChecksumRow) evt.getSource()));
 		}
 	};
 
@@ -246,15 +243,46 @@ class ChecksumTableModel extends AbstractTableModel {
 		public void propertyChange(PropertyChangeEvent evt) {
 			ChecksumCell cell = (ChecksumCell) evt.getSource();
 
-			int row = getRowIndex(cell);
-			int column = getColumnIndex(cell);
-
-			if (row >= 0 && column >= 0) {
-				fireTableCellUpdated(row, column);
+			if (getColumnIndex(cell) >= 0) {
+				updateRow(getRowIndex(cell));
 			}
 		}
 	};
 
+	// rows that have changed since the last repaint
+	private int firstUpdatedRow = Integer.MAX_VALUE;
+	private int lastUpdatedRow = -1;
+
+	// coalesce frequent progress and state changes into one table event per timer tick
+	private final Timer updateTimer = new Timer(100, evt -> fireRowsUpdated());
+
+	private void updateRow(int row) {
+		if (row < 0) {
+			return;
+		}
+
+		firstUpdatedRow = Math.min(firstUpdatedRow, row);
+		lastUpdatedRow = Math.max(lastUpdatedRow, row);
+
+		if (!updateTimer.isRunning()) {
+			updateTimer.start();
+		}
+	}
+
+	private void fireRowsUpdated() {
+		updateTimer.stop();
+
+		int first = firstUpdatedRow;
+		int last = Math.min(lastUpdatedRow, getRowCount() - 1);
+
+		firstUpdatedRow = Integer.MAX_VALUE;
+		lastUpdatedRow = -1;
+
+		if (first <= last) {
+			fireTableRowsUpdated(first, last);
+		}
+	}
+
 	protected static abstract class IndexedMap<K, V> extends AbstractList<V> {
 
 		private final Map<K, Integer> indexMap = new HashMap<K, Integer>(64);
@@ -282,7 +310,7 @@ class ChecksumTableModel extends AbstractTableModel {
 			Integer index = indexMap.get(key);
 
 			if (index == null && list.add(value)) {
-				indexMap.put(key, lastIndexOf(value));
+				indexMap.put(key, list.size() - 1);
 				return true;
 			}
 
@@ -290,22 +318,30 @@ class ChecksumTableModel extends AbstractTableModel {
 		}
 
 		public void removeAll(int... index) {
-			// sort index array
-			Arrays.sort(index);
-
-			// remove in reverse
-			for (int i = index.length - 1; i >= 0; i--) {
-				V value = list.remove(index[i]);
-				indexMap.remove(key(value));
+			if (index.length == 0) {
+				return;
 			}
 
-			updateIndexMap();
-		}
+			BitSet removed = new BitSet(list.size());
+			for (int i : index) {
+				removed.set(i);
+			}
 
-		private void updateIndexMap() {
-			for (int i = 0; i < list.size(); i++) {
-				indexMap.put(key(list.get(i)), i);
+			// compact list in a single pass and only update the index of values that have moved
+			int first = removed.nextSetBit(0);
+			int j = first;
+
+			for (int i = first; i < list.size(); i++) {
+				V value = list.get(i);
+				if (removed.get(i)) {
+					indexMap.remove(key(value));
+				} else {
+					list.set(j, value);
+					indexMap.put(key(value), j++);
+				}
 			}
+
+			list.subList(j, list.size()).clear();
 		}
 
 		@Override
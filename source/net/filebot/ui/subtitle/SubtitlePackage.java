@@ -163,7 +163,8 @@ public class SubtitlePackage {
 		private List<MemoryFile> extract(ArchiveType archiveType, ByteBuffer data) throws IOException {
 			List<MemoryFile> vfs = new ArrayList<MemoryFile>();
 
-			for (MemoryFile file : archiveType.fromData(data)) {
+			// only extract subtitle files and nested archives
+			for (MemoryFile file : archiveType.fromData(data, path -> SUBTITLE_FILES.accept(path) || ArchiveType.forName(FileUtilities.getExtension(path)) != ArchiveType.UNKOWN)) {
 				if (SUBTITLE_FILES.accept(file.getName())) {
 					// add subtitle files, ignore non-subtitle files
 					vfs.add(file);
@@ -13,6 +13,7 @@ public class DefaultThreadFactory implements ThreadFactory {
 
 	private final int priority;
 	private final boolean daemon;
+	private final boolean inheritThreadLocals;
 
 
 	public DefaultThreadFactory(String name) {
@@ -26,6 +27,11 @@ public class DefaultThreadFactory implements ThreadFactory {
 
 
 	public DefaultThreadFactory(String groupName, int priority, boolean daemon) {
+		this(groupName, priority, daemon, true);
+	}
+
+
+	public DefaultThreadFactory(String groupName, int priority, boolean daemon, boolean inheritThreadLocals) {
 		SecurityManager sm = System.getSecurityManager();
 		ThreadGroup parentGroup = (sm != null) ? sm.getThreadGroup() : Thread.currentThread().getThreadGroup();
 
@@ -33,12 +39,13 @@ public class DefaultThreadFactory implements ThreadFactory {
 
 		this.daemon = daemon;
 		this.priority = priority;
+		this.inheritThreadLocals = inheritThreadLocals;
 	}
 
 
 	@Override
 	public Thread newThread(Runnable r) {
-		Thread thread = new Thread(group, r, String.format("%s-thread-%d", group.getName(), threadNumber.incrementAndGet()));
+		Thread thread = new Thread(group, r, String.format("%s-thread-%d", group.getName(), threadNumber.incrementAndGet()), 0, inheritThreadLocals);
 
 		if (daemon != thread.isDaemon())
 			thread.setDaemon(daemon);
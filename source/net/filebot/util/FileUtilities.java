@@ -46,6 +46,7 @@ import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -539,17 +540,22 @@ public final class FileUtilities {
 
 	public static List<File> listFiles(File[] files, int depth, FileFilter filter, Comparator<File> order) {
 		List<File> sink = new ArrayList<File>();
+		walkFiles(files, depth, filter, order, sink::add);
+		return sink;
+	}
 
+	/**
+	 * Traverse the file tree in the same order as {@link #listFiles(File[], int, FileFilter, Comparator)} but pass each selected file to the given consumer as soon as it has been found.
+	 */
+	public static void walkFiles(File[] files, int depth, FileFilter filter, Comparator<File> order, Consumer<File> sink) {
 		// traverse file tree recursively
-		streamFiles(files, FOLDERS, order).forEach(f -> listFiles(f, sink, depth, filter, order));
+		streamFiles(files, FOLDERS, order).forEach(f -> walkFiles(f, sink, depth, filter, order));
 
 		// add selected files in preferred order
-		streamFiles(files, filter, order).forEach(sink::add);
-
-		return sink;
+		streamFiles(files, filter, order).forEach(sink);
 	}
 
-	private static void listFiles(File folder, List<File> sink, int depth, FileFilter filter, Comparator<File> order) {
+	private static void walkFiles(File folder, Consumer<File> sink, int depth, FileFilter filter, Comparator<File> order) {
 		if (depth < 0) {
 			return;
 		}
@@ -558,10 +564,10 @@ public final class FileUtilities {
 		File[] files = folder.listFiles(NOT_HIDDEN);
 
 		// traverse file tree recursively
-		streamFiles(files, FOLDERS, order).forEach(f -> listFiles(f, sink, depth - 1, filter, order));
+		streamFiles(files, FOLDERS, order).forEach(f -> walkFiles(f, sink, depth - 1, filter, order));
 
 		// add selected files in preferred order
-		streamFiles(files, filter, order).forEach(sink::add);
+		streamFiles(files, filter, order).forEach(sink);
 	}
 
 	private static Stream<File> streamFiles(File[] files, FileFilter filter, Comparator<File> order) {
@@ -0,0 +1,116 @@
+package net.filebot.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton that finds all occurrences of a large set of keywords in a single pass. Keywords are matched case-insensitively, i.e. the same way as {@link java.util.regex.Pattern#CASE_INSENSITIVE} with {@link java.util.regex.Pattern#UNICODE_CASE} matches characters.
+ */
+public class KeywordMatcher {
+
+	private final Node root = new Node();
+	private final int size;
+
+	public KeywordMatcher(List<String> keywords) {
+		this.size = keywords.size();
+
+		// build keyword trie
+		for (int i = 0; i < keywords.size(); i++) {
+			String keyword = keywords.get(i);
+			if (keyword.isEmpty()) {
+				continue;
+			}
+
+			Node node = root;
+			for (int j = 0; j < keyword.length();) {
+				int c = keyword.codePointAt(j);
+				j += Character.charCount(c);
+				node = node.next.computeIfAbsent(fold(c), k -> new Node());
+			}
+			node.keywords = append(node.keywords, i);
+		}
+
+		// link each node to the node of its longest proper suffix (breadth first)
+		Queue<Node> queue = new ArrayDeque<Node>();
+		for (Node child : root.next.values()) {
+			child.fail = root;
+			queue.add(child);
+		}
+
+		while (!queue.isEmpty()) {
+			Node node = queue.remove();
+			for (Map.Entry<Integer, Node> it : node.next.entrySet()) {
+				Node fail = node.fail;
+				while (fail != root && !fail.next.containsKey(it.getKey())) {
+					fail = fail.fail;
+				}
+
+				Node child = it.getValue();
+				child.fail = fail.next.getOrDefault(it.getKey(), root);
+				child.output = child.fail.keywords.length > 0 ? child.fail : child.fail.output;
+				queue.add(child);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Find all keywords that occur anywhere in the given input.
+	 *
+	 * @return indices of all occurring keywords
+	 */
+	public BitSet match(CharSequence input) {
+		BitSet matches = new BitSet(size);
+
+		Node node = root;
+		for (int i = 0; i < input.length();) {
+			int c = Character.codePointAt(input, i);
+			i += Character.charCount(c);
+			c = fold(c);
+
+			while (node != root && !node.next.containsKey(c)) {
+				node = node.fail;
+			}
+			node = node.next.getOrDefault(c, root);
+
+			// collect keywords ending at the current position
+			for (Node n = node; n != null; n = n.output) {
+				for (int k : n.keywords) {
+					matches.set(k);
+				}
+			}
+		}
+
+		return matches;
+	}
+
+	private static int[] append(int[] values, int value) {
+		int[] array = Arrays.copyOf(values, values.length + 1);
+		array[values.length] = value;
+		return array;
+	}
+
+	private static int fold(int c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static class Node {
+
+		private final Map<Integer, Node> next = new HashMap<Integer, Node>(4);
+
+		private int[] keywords = new int[0];
+
+		// longest proper suffix node and the longest proper suffix node that is the end of a keyword
+		private Node fail;
+		private Node output;
+	}
+
+}
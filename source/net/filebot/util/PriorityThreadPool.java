@@ -0,0 +1,253 @@
+package net.filebot.util;
+
+import static java.util.stream.Collectors.*;
+import static net.filebot.Logging.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application-scoped thread pool with a fixed number of threads and a priority task queue.
+ * <p>
+ * Tasks are submitted via {@link TaskGroup} objects that can be cancelled all at once. Tasks may submit subtasks to the same pool and wait for them. Subtasks take precedence over tasks that have not been started yet, and a pool thread that is waiting for a subtask that has not been started yet will simply run the subtask itself, so that nested tasks can never starve the pool.
+ * <p>
+ * Pool threads do not inherit thread-local values from whichever thread happened to create them. Thread-local values registered via {@link #inheritThreadLocal(ThreadLocal)} are carried over from the submitting thread to each task instead.
+ */
+public class PriorityThreadPool extends ThreadPoolExecutor {
+
+	private static final ThreadLocal<PriorityTask<?>> currentTask = new ThreadLocal<PriorityTask<?>>();
+
+	private static final List<ThreadLocal<Object>> inheritableThreadLocals = new CopyOnWriteArrayList<ThreadLocal<Object>>();
+
+	@SuppressWarnings("unchecked")
+	public static void inheritThreadLocal(ThreadLocal<?> threadLocal) {
+		inheritableThreadLocals.add((ThreadLocal<Object>) threadLocal);
+	}
+
+	private final AtomicLong sequence = new AtomicLong(0);
+
+	private final String name;
+
+	public PriorityThreadPool(String name, int threads) {
+		super(threads, threads, 60, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new DefaultThreadFactory(name, Thread.NORM_PRIORITY, true, false));
+		allowCoreThreadTimeOut(true);
+		this.name = name;
+	}
+
+	/**
+	 * @return number of tasks that are waiting for a thread
+	 */
+	public int getQueueSize() {
+		return getQueue().size();
+	}
+
+	public TaskGroup newTaskGroup(int priority) {
+		// new tasks will have to wait for queued tasks of the same or higher priority
+		int queueSize = getQueueSize();
+		if (queueSize > 0) {
+			debug.finest(format("%s: %d active and %d queued tasks", name, getActiveCount(), queueSize));
+		}
+
+		return new TaskGroup(priority);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		// priority queue only accepts priority tasks
+		super.execute(command instanceof PriorityTask ? command : new PriorityTask<Object>(Executors.callable(command), Thread.NORM_PRIORITY, null));
+	}
+
+	@Override
+	protected <T> FutureTask<T> newTaskFor(Callable<T> callable) {
+		return new PriorityTask<T>(callable, Thread.NORM_PRIORITY, null);
+	}
+
+	@Override
+	protected <T> FutureTask<T> newTaskFor(Runnable runnable, T value) {
+		return newTaskFor(Executors.callable(runnable, value));
+	}
+
+	/**
+	 * Set of tasks that share the same priority and that can be cancelled all at once via {@link #shutdownNow()}.
+	 */
+	public class TaskGroup extends AbstractExecutorService {
+
+		private final int priority;
+
+		private final Set<PriorityTask<?>> tasks = ConcurrentHashMap.newKeySet();
+
+		private volatile boolean shutdown = false;
+
+		public TaskGroup(int priority) {
+			this.priority = priority;
+		}
+
+		@Override
+		protected <T> FutureTask<T> newTaskFor(Callable<T> callable) {
+			// subtasks of running tasks take precedence over new tasks
+			PriorityTask<?> parent = currentTask.get();
+			int p = parent == null ? priority : Math.max(priority, parent.priority + 1);
+
+			return new PriorityTask<T>(callable, p, this);
+		}
+
+		@Override
+		protected <T> FutureTask<T> newTaskFor(Runnable runnable, T value) {
+			return newTaskFor(Executors.callable(runnable, value));
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			if (shutdown) {
+				throw new RejectedExecutionException("Task group has been shut down");
+			}
+
+			PriorityTask<?> task = command instanceof PriorityTask ? (PriorityTask<?>) command : (PriorityTask<?>) newTaskFor(command, null);
+			tasks.add(task);
+
+			PriorityThreadPool.this.execute(task);
+		}
+
+		@Override
+		public void shutdown() {
+			shutdown = true;
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			shutdown = true;
+
+			// remove queued tasks and interrupt running tasks
+			List<Runnable> queued = tasks.stream().filter(PriorityThreadPool.this::remove).collect(toCollection(ArrayList::new));
+			tasks.forEach(t -> t.cancel(true));
+
+			return queued;
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return shutdown;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return shutdown && tasks.isEmpty();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+			synchronized (tasks) {
+				while (!isTerminated()) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						return false;
+					}
+					TimeUnit.NANOSECONDS.timedWait(tasks, remaining);
+				}
+			}
+			return true;
+		}
+
+		private void done(PriorityTask<?> task) {
+			tasks.remove(task);
+
+			synchronized (tasks) {
+				tasks.notifyAll();
+			}
+		}
+	}
+
+	private class PriorityTask<T> extends FutureTask<T> implements Comparable<PriorityTask<?>> {
+
+		private final int priority;
+		private final long order = sequence.getAndIncrement();
+
+		private final Object[] context = inheritableThreadLocals.stream().map(ThreadLocal::get).toArray();
+
+		private final TaskGroup group;
+
+		public PriorityTask(Callable<T> callable, int priority, TaskGroup group) {
+			super(callable);
+			this.priority = priority;
+			this.group = group;
+		}
+
+		@Override
+		public void run() {
+			PriorityTask<?> parent = currentTask.get();
+			currentTask.set(this);
+			Object[] parentContext = setContext(context);
+			try {
+				super.run();
+			} finally {
+				setContext(parentContext);
+				currentTask.set(parent);
+			}
+		}
+
+		private Object[] setContext(Object[] values) {
+			Object[] previous = new Object[values.length];
+			for (int i = 0; i < values.length; i++) {
+				ThreadLocal<Object> threadLocal = inheritableThreadLocals.get(i);
+				previous[i] = threadLocal.get();
+
+				if (values[i] == null) {
+					threadLocal.remove();
+				} else {
+					threadLocal.set(values[i]);
+				}
+			}
+			return previous;
+		}
+
+		@Override
+		protected void done() {
+			if (group != null) {
+				group.done(this);
+			}
+		}
+
+		@Override
+		public T get() throws InterruptedException, ExecutionException {
+			help();
+			return super.get();
+		}
+
+		@Override
+		public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			help();
+			return super.get(timeout, unit);
+		}
+
+		private void help() {
+			// pool threads must not block on queued tasks that may never get a thread
+			if (currentTask.get() != null && remove(this)) {
+				run();
+			}
+		}
+
+		@Override
+		public int compareTo(PriorityTask<?> other) {
+			// higher priority first, then first come first serve
+			int c = Integer.compare(other.priority, priority);
+			return c != 0 ? c : Long.compare(order, other.order);
+		}
+	}
+
+}
@@ -5,6 +5,9 @@ import static net.filebot.Logging.*;
 
 import java.nio.ByteBuffer;
 import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 
 public enum ArchiveType {
@@ -12,41 +15,102 @@ public enum ArchiveType {
 	ZIP {
 
 		@Override
-		public Iterable<MemoryFile> fromData(ByteBuffer data) {
-			return new ZipArchive(data);
+		public Iterable<MemoryFile> fromData(ByteBuffer data, Predicate<String> filter) {
+			return new ZipArchive(data, filter);
+		}
+	},
+
+	RAR {
+
+		@Override
+		public Iterable<MemoryFile> fromData(ByteBuffer data, Predicate<String> filter) {
+			return new SevenZipArchive(data, filter);
+		}
+
+		@Override
+		public Optional<MemoryFile> first(ByteBuffer data, Predicate<String> filter) {
+			return new SevenZipArchive(data, filter).first();
+		}
+	},
+
+	SEVEN_ZIP {
+
+		@Override
+		public Iterable<MemoryFile> fromData(ByteBuffer data, Predicate<String> filter) {
+			return new SevenZipArchive(data, filter);
+		}
+
+		@Override
+		public Optional<MemoryFile> first(ByteBuffer data, Predicate<String> filter) {
+			return new SevenZipArchive(data, filter).first();
 		}
 	},
 
 	UNDEFINED {
 
 		@Override
-		public Iterable<MemoryFile> fromData(ByteBuffer data) {
-			for (ArchiveType type : EnumSet.of(ZIP)) {
+		public Iterable<MemoryFile> fromData(ByteBuffer data, Predicate<String> filter) {
+			return () -> {
+				for (ArchiveType type : EnumSet.of(ZIP, SEVEN_ZIP)) {
+					try {
+						// continue with the iterator that has been used for probing so that entries are not read twice
+						Iterator<MemoryFile> it = type.fromData(data, filter).iterator();
+						if (it.hasNext()) {
+							return it;
+						}
+					} catch (Exception e) {
+						debug.log(Level.WARNING, e, e::toString);
+					}
+				}
+
+				// cannot extract data, return empty archive
+				return emptyIterator();
+			};
+		}
+
+		@Override
+		public Optional<MemoryFile> first(ByteBuffer data, Predicate<String> filter) {
+			for (ArchiveType type : EnumSet.of(ZIP, SEVEN_ZIP)) {
 				try {
-					Iterable<MemoryFile> files = type.fromData(data);
-					if (files.iterator().hasNext()) {
-						return files;
+					Optional<MemoryFile> file = type.first(data, filter);
+					if (file.isPresent()) {
+						return file;
 					}
 				} catch (Exception e) {
 					debug.log(Level.WARNING, e, e::toString);
 				}
 			}
 
-			// cannot extract data, return empty archive
-			return emptySet();
+			// cannot extract data
+			return Optional.empty();
 		}
 	},
 
 	UNKOWN {
 
 		@Override
-		public Iterable<MemoryFile> fromData(ByteBuffer data) {
+		public Iterable<MemoryFile> fromData(ByteBuffer data, Predicate<String> filter) {
 			// cannot extract data, return empty archive
 			return emptySet();
 		}
 	};
 
-	public abstract Iterable<MemoryFile> fromData(ByteBuffer data);
+	public Iterable<MemoryFile> fromData(ByteBuffer data) {
+		return fromData(data, path -> true);
+	}
+
+	/**
+	 * Archive entries are read lazily and only entries accepted by the given filter are extracted into memory.
+	 */
+	public abstract Iterable<MemoryFile> fromData(ByteBuffer data, Predicate<String> filter);
+
+	/**
+	 * Extract only the first entry accepted by the given filter, and skip over all remaining entries without reading them.
+	 */
+	public Optional<MemoryFile> first(ByteBuffer data, Predicate<String> filter) {
+		Iterator<MemoryFile> it = fromData(data, filter).iterator();
+		return it.hasNext() ? Optional.of(it.next()) : Optional.empty();
+	}
 
 	public static ArchiveType forName(String name) {
 		if (name == null)
@@ -55,6 +119,12 @@ public enum ArchiveType {
 		if ("zip".equalsIgnoreCase(name))
 			return ZIP;
 
+		if ("rar".equalsIgnoreCase(name))
+			return RAR;
+
+		if ("7z".equalsIgnoreCase(name))
+			return SEVEN_ZIP;
+
 		return UNKOWN;
 	}
 
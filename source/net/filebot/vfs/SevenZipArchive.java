@@ -0,0 +1,157 @@
+package net.filebot.vfs;
+
+import static java.util.Collections.*;
+import static net.filebot.Logging.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+
+import net.filebot.archive.SevenZipLoader;
+import net.filebot.util.ByteBufferOutputStream;
+import net.sf.sevenzipjbinding.ExtractOperationResult;
+import net.sf.sevenzipjbinding.IInArchive;
+import net.sf.sevenzipjbinding.IInStream;
+import net.sf.sevenzipjbinding.PropID;
+import net.sf.sevenzipjbinding.SevenZipException;
+import net.sf.sevenzipjbinding.SevenZipNativeInitializationException;
+
+/**
+ * In-memory RAR / 7z archive. Entry headers are read via 7-Zip-JBinding directly from the archive data, and only entries that are accepted by the filter are extracted. The native archive handle is closed before the iterator is returned, so callers may stop iterating at any time. Use {@link #first()} to extract no more than the first accepted entry.
+ */
+public class SevenZipArchive implements Iterable<MemoryFile> {
+
+	private final ByteBuffer data;
+	private final Predicate<String> filter;
+
+	public SevenZipArchive(ByteBuffer data) {
+		this(data, path -> true);
+	}
+
+	public SevenZipArchive(ByteBuffer data, Predicate<String> filter) {
+		this.data = data.duplicate();
+		this.filter = filter;
+	}
+
+	@Override
+	public Iterator<MemoryFile> iterator() {
+		try {
+			return extract().iterator();
+		} catch (Throwable e) {
+			debug.log(Level.WARNING, e, message("Failed to open archive", e));
+		}
+
+		// cannot extract data, return empty archive
+		return emptyIterator();
+	}
+
+	public Optional<MemoryFile> first() {
+		try {
+			return extract(1).stream().findFirst();
+		} catch (Throwable e) {
+			debug.log(Level.WARNING, e, message("Failed to open archive", e));
+		}
+
+		// cannot extract data
+		return Optional.empty();
+	}
+
+	public List<MemoryFile> extract() throws SevenZipException, SevenZipNativeInitializationException {
+		return extract(Integer.MAX_VALUE);
+	}
+
+	public List<MemoryFile> extract(int limit) throws SevenZipException, SevenZipNativeInitializationException {
+		IInArchive archive = SevenZipLoader.open(new ByteBufferInStream(data.duplicate()), null);
+		try {
+			List<MemoryFile> vfs = new ArrayList<MemoryFile>();
+
+			// stop reading entry headers once we have extracted enough entries
+			for (int i = 0; i < archive.getNumberOfItems() && vfs.size() < limit; i++) {
+				// ignore folder entries and skip over entries we don't want without extracting them
+				String path = (String) archive.getProperty(i, PropID.PATH);
+				if (path == null || Boolean.TRUE.equals(archive.getProperty(i, PropID.IS_FOLDER)) || !filter.test(path)) {
+					continue;
+				}
+
+				Long size = (Long) archive.getProperty(i, PropID.SIZE);
+				ByteBufferOutputStream buffer = new ByteBufferOutputStream(size != null && size > 0 ? size : 8 * 1024);
+
+				ExtractOperationResult result = archive.extractSlow(i, bytes -> {
+					try {
+						buffer.write(bytes);
+					} catch (IOException e) {
+						throw new SevenZipException(e);
+					}
+					return bytes.length;
+				});
+
+				if (result != ExtractOperationResult.OK) {
+					throw new SevenZipException("Failed to extract " + path + ": " + result);
+				}
+
+				vfs.add(new MemoryFile(path, buffer.getByteBuffer()));
+			}
+
+			return vfs;
+		} finally {
+			archive.close();
+		}
+	}
+
+	/**
+	 * Seekable 7-Zip-JBinding input stream that reads directly from the given buffer.
+	 */
+	private static class ByteBufferInStream implements IInStream {
+
+		private final ByteBuffer data;
+
+		public ByteBufferInStream(ByteBuffer data) {
+			this.data = data.slice();
+		}
+
+		@Override
+		public synchronized long seek(long offset, int seekOrigin) throws SevenZipException {
+			long position;
+
+			switch (seekOrigin) {
+			case SEEK_SET:
+				position = offset;
+				break;
+			case SEEK_CUR:
+				position = data.position() + offset;
+				break;
+			case SEEK_END:
+				position = data.limit() + offset;
+				break;
+			default:
+				throw new SevenZipException("Illegal seek origin: " + seekOrigin);
+			}
+
+			if (position < 0) {
+				throw new SevenZipException("Illegal seek position: " + position);
+			}
+
+			// seeking beyond the end is allowed but there is nothing to read
+			data.position((int) Math.min(position, data.limit()));
+			return position;
+		}
+
+		@Override
+		public synchronized int read(byte[] bytes) throws SevenZipException {
+			int length = Math.min(bytes.length, data.remaining());
+			data.get(bytes, 0, length);
+			return length;
+		}
+
+		@Override
+		public void close() {
+			// nothing to close
+		}
+	}
+
+}
@@ -1,4 +1,3 @@
-
 package net.filebot.vfs;
 
 
@@ -7,6 +6,8 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -17,49 +18,94 @@ import net.filebot.util.ByteBufferOutputStream;
 public class ZipArchive implements Iterable<MemoryFile> {
 
 	private final ByteBuffer data;
+	private final Predicate<String> filter;
 
 
 	public ZipArchive(ByteBuffer data) {
+		this(data, path -> true);
+	}
+
+
+	public ZipArchive(ByteBuffer data, Predicate<String> filter) {
 		this.data = data.duplicate();
+		this.filter = filter;
 	}
 
 
+	/**
+	 * Read zip entries one by one straight from the archive data. Only entries that are accepted by the filter are inflated, and only when the iterator gets to them.
+	 */
 	@Override
 	public Iterator<MemoryFile> iterator() {
-		try {
-			return extract().iterator();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return new Iterator<MemoryFile>() {
+
+			private final ZipInputStream zipInputStream = new ZipInputStream(new ByteBufferInputStream(data.duplicate()));
+			private MemoryFile next;
+			private boolean done;
+
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && !done) {
+					try {
+						next = readNextEntry(zipInputStream, filter);
+						if (next == null) {
+							done = true;
+							zipInputStream.close();
+						}
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+				return next != null;
+			}
+
+
+			@Override
+			public MemoryFile next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				MemoryFile file = next;
+				next = null;
+				return file;
+			}
+		};
 	}
 
 
 	public List<MemoryFile> extract() throws IOException {
 		List<MemoryFile> vfs = new ArrayList<MemoryFile>();
 
-		// read first zip entry
-		ZipInputStream zipInputStream = new ZipInputStream(new ByteBufferInputStream(data.duplicate()));
-		ZipEntry zipEntry;
+		try (ZipInputStream zipInputStream = new ZipInputStream(new ByteBufferInputStream(data.duplicate()))) {
+			MemoryFile file;
+			while ((file = readNextEntry(zipInputStream, filter)) != null) {
+				vfs.add(file);
+			}
+		}
 
-		try {
-			while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-				// ignore directory entries
-				if (zipEntry.isDirectory()) {
-					continue;
-				}
+		return vfs;
+	}
 
-				ByteBufferOutputStream buffer = new ByteBufferOutputStream((int) zipEntry.getSize());
 
-				// write contents to buffer
-				buffer.transferFully(zipInputStream);
+	private static MemoryFile readNextEntry(ZipInputStream zipInputStream, Predicate<String> filter) throws IOException {
+		ZipEntry zipEntry;
 
-				// add memory file
-				vfs.add(new MemoryFile(zipEntry.getName(), buffer.getByteBuffer()));
+		while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+			// ignore directory entries and skip over entries we don't want without buffering their contents
+			if (zipEntry.isDirectory() || !filter.test(zipEntry.getName())) {
+				continue;
 			}
-		} finally {
-			zipInputStream.close();
+
+			ByteBufferOutputStream buffer = new ByteBufferOutputStream(zipEntry.getSize() > 0 ? (int) zipEntry.getSize() : 8 * 1024);
+
+			// write contents to buffer
+			buffer.transferFully(zipInputStream);
+
+			return new MemoryFile(zipEntry.getName(), buffer.getByteBuffer());
 		}
 
-		return vfs;
+		return null;
 	}
 }
@@ -2,14 +2,23 @@ package net.filebot.web;
 
 import static net.filebot.Logging.*;
 import static net.filebot.MediaTypes.*;
+import static net.filebot.Settings.*;
 import static net.filebot.util.FileUtilities.*;
 import static net.filebot.util.StringUtilities.*;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import javax.swing.Icon;
@@ -41,22 +50,57 @@ public class ID3Lookup implements MusicIdentificationService {
 	}
 
 	private <T> Map<File, T> read(Collection<File> files, Function<MediaInfo, T> parse, FileFilter... filters) {
-		Map<File, T> info = new LinkedHashMap<File, T>(files.size());
+		List<File> input = filter(files, filters);
+		Map<File, T> info = new LinkedHashMap<File, T>(input.size());
 
-		try (MediaInfo m = new MediaInfo()) {
-			for (File f : filter(files, filters)) {
-				try {
-					// open or throw exception
-					m.open(f);
-
-					T object = parse.apply(m);
-					if (object != null) {
-						info.put(f, object);
+		if (input.isEmpty()) {
+			return info;
+		}
+
+		// one reusable media info handle per worker
+		int threadPoolSize = Math.min(input.size(), getPreferredThreadPoolSize());
+		BlockingQueue<MediaInfo> handles = new ArrayBlockingQueue<MediaInfo>(threadPoolSize);
+		ExecutorService workerThreadPool = Executors.newFixedThreadPool(threadPoolSize);
+
+		try {
+			for (int i = 0; i < threadPoolSize; i++) {
+				MediaInfo m = new MediaInfo();
+				m.option("ParseSpeed", "0"); // tags are read from the container header
+				handles.add(m);
+			}
+
+			List<Future<T>> futures = new ArrayList<Future<T>>(input.size());
+			for (File f : input) {
+				futures.add(workerThreadPool.submit(() -> {
+					MediaInfo m = handles.take();
+					try {
+						// open or throw exception
+						return parse.apply(m.open(f));
+					} catch (Throwable e) {
+						debug.warning(e::getMessage);
+					} finally {
+						handles.add(m);
 					}
-				} catch (Throwable e) {
-					debug.warning(e::getMessage);
+					return null;
+				}));
+			}
+
+			// merge results in input order
+			for (int i = 0; i < input.size(); i++) {
+				T object = futures.get(i).get();
+				if (object != null) {
+					info.put(input.get(i), object);
 				}
 			}
+		} catch (InterruptedException | ExecutionException e) {
+			debug.warning(e::toString);
+		} finally {
+			workerThreadPool.shutdownNow();
+
+			// handles that are still in use are released by the cleaner
+			List<MediaInfo> idle = new ArrayList<MediaInfo>(threadPoolSize);
+			handles.drainTo(idle);
+			idle.forEach(MediaInfo::close);
 		}
 
 		return info;
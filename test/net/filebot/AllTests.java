@@ -4,21 +4,26 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import net.filebot.cli.CmdlineDaemonTest;
+import net.filebot.cli.ScriptClassCacheTest;
 import net.filebot.format.ExpressionFormatTest;
 import net.filebot.hash.VerificationFormatTest;
 import net.filebot.media.MediaDetectionTest;
 import net.filebot.media.ReleaseInfoTest;
 import net.filebot.media.VideoFormatTest;
+import net.filebot.media.XattrFingerprintTest;
 import net.filebot.mediainfo.MediaInfoTest;
 import net.filebot.similarity.EpisodeMetricsTest;
 import net.filebot.similarity.SimilarityTestSuite;
 import net.filebot.subtitle.SubtitleReaderTestSuite;
 import net.filebot.ui.rename.MatchModelTest;
 import net.filebot.util.UtilTestSuite;
+import net.filebot.vfs.SevenZipArchiveTest;
+import net.filebot.vfs.ZipArchiveTest;
 import net.filebot.web.WebTestSuite;
 
 @RunWith(Suite.class)
-@SuiteClasses({ ExpressionFormatTest.class, VerificationFormatTest.class, MatchModelTest.class, EpisodeMetricsTest.class, ReleaseInfoTest.class, VideoFormatTest.class, MediaDetectionTest.class, MediaInfoTest.class, SimilarityTestSuite.class, WebTestSuite.class, SubtitleReaderTestSuite.class, UtilTestSuite.class })
+@SuiteClasses({ HistoryJournalTest.class, ExpressionFormatTest.class, ScriptClassCacheTest.class, CmdlineDaemonTest.class, VerificationFormatTest.class, MatchModelTest.class, EpisodeMetricsTest.class, ReleaseInfoTest.class, VideoFormatTest.class, XattrFingerprintTest.class, MediaDetectionTest.class, MediaInfoTest.class, SimilarityTestSuite.class, WebTestSuite.class, SubtitleReaderTestSuite.class, UtilTestSuite.class, ZipArchiveTest.class, SevenZipArchiveTest.class })
 public class AllTests {
 
 }
@@ -0,0 +1,134 @@
+package net.filebot;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Arrays.*;
+import static java.util.Collections.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.filebot.History.Element;
+import net.filebot.History.Sequence;
+
+public class HistoryJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File journal, index, legacy;
+
+	@Before
+	public void setUp() throws Exception {
+		journal = new File(folder.getRoot(), "history.journal");
+		index = new File(folder.getRoot(), "history.index");
+		legacy = new File(folder.getRoot(), "history.xml");
+	}
+
+	private HistoryJournal open() {
+		return new HistoryJournal(journal, index, legacy);
+	}
+
+	private static Sequence sequence(long date, String dir, String from, String to) {
+		return new Sequence(new Date(date), asList(new Element(from, to, new File(dir))));
+	}
+
+	@Test
+	public void append() throws Exception {
+		Sequence s1 = sequence(1000, "/media/a", "a.avi", "Alias.avi");
+		Sequence s2 = sequence(2000, "/media/b", "b\tc.avi", "Firefly.avi");
+
+		open().append(asList(s1));
+		open().append(asList(s2));
+
+		HistoryJournal history = open();
+		assertEquals(asList(s1, s2), history.read().sequences());
+		assertEquals(2, history.totalSize());
+		assertEquals(asList(s2), history.read(new Date(1500)).sequences());
+		assertEquals(asList(s1), history.read(singleton(new File("/media/a"))).sequences());
+		assertEquals(asList(s2), history.read(singleton(new File("/media/b/Firefly.avi"))).sequences());
+	}
+
+	@Test
+	public void rebuildIndex() throws Exception {
+		Sequence s1 = sequence(1000, "/media/a", "a.avi", "Alias.avi");
+		Sequence s2 = sequence(2000, "/media/b", "b.avi", "Firefly.avi");
+		open().append(asList(s1, s2));
+
+		// missing index and incomplete trailing record from an interrupted write
+		index.delete();
+		Files.write(journal.toPath(), "#3000\t2\n/media/c\tc.avi".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+		HistoryJournal history = open();
+		assertEquals(asList(s1, s2), history.read().sequences());
+		assertEquals(asList(s2), history.read(singleton(new File("/media/b"))).sequences());
+
+		// incomplete record is discarded on the next write
+		Sequence s3 = sequence(3000, "/media/c", "c.avi", "Castle.avi");
+		history.append(asList(s3));
+		assertEquals(asList(s1, s2, s3), open().read().sequences());
+	}
+
+	@Test
+	public void externalRewriteOfSameLength() throws Exception {
+		HistoryJournal history = open();
+		history.append(asList(sequence(1000, "/media/a", "a.avi", "Alias.avi")));
+		assertEquals(1, history.read(singleton(new File("/media/a"))).sequences().size());
+
+		// replace journal with different records of the same length
+		byte[] bytes = new String(Files.readAllBytes(journal.toPath()), UTF_8).replace("/media/a", "/media/x").getBytes(UTF_8);
+		Files.write(journal.toPath(), bytes);
+		journal.setLastModified(journal.lastModified() - 60000);
+
+		assertEquals(0, history.read(singleton(new File("/media/a"))).sequences().size());
+		assertEquals(1, history.read(singleton(new File("/media/x"))).sequences().size());
+	}
+
+	@Test
+	public void compact() throws Exception {
+		Sequence s1 = sequence(1000, "/media/a", "a.avi", "Alias.avi");
+		Sequence s2 = sequence(2000, "/media/b", "b.avi", "Firefly.avi");
+
+		HistoryJournal history = open();
+		history.append(asList(s1, s2, s1, s2));
+		long length = journal.length();
+
+		history.compact();
+
+		assertEquals(length / 2, journal.length());
+		assertEquals(asList(s1, s2), history.read().sequences());
+		assertEquals(asList(s2), history.read(singleton(new File("/media/b"))).sequences());
+		assertEquals(asList(s1, s2), open().read().sequences());
+
+		// no temporary files left behind
+		assertEquals(0, folder.getRoot().listFiles((dir, name) -> name.endsWith(".part")).length);
+	}
+
+	@Test
+	public void importLegacyHistory() throws Exception {
+		Sequence s1 = sequence(1000, "/media/a", "a.avi", "Alias.avi");
+		Sequence s2 = sequence(2000, "/media/b", "b.avi", "Firefly.avi");
+
+		try (OutputStream out = new FileOutputStream(legacy)) {
+			History.exportHistory(new History(asList(s1, s2)), out);
+		}
+
+		HistoryJournal history = open();
+		assertEquals(asList(s1, s2), history.read().sequences());
+
+		// legacy history is imported only once
+		assertFalse(legacy.exists());
+		assertTrue(new File(legacy.getPath() + ".bak").exists());
+		assertEquals(2, open().totalSize());
+	}
+
+}
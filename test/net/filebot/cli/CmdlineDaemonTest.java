@@ -0,0 +1,163 @@
+package net.filebot.cli;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Collections.*;
+import static net.filebot.Logging.*;
+import static net.filebot.Settings.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Filter;
+import java.util.logging.Level;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.filebot.util.DefaultThreadFactory;
+import net.filebot.util.PriorityThreadPool;
+
+public class CmdlineDaemonTest {
+
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+
+	public static final PriorityThreadPool pool = new PriorityThreadPool("Test", 1);
+
+	private static PrintStream stdout, stderr;
+	private static InputStream stdin;
+	private static Level level;
+	private static Filter filter;
+
+	private static ServerSocket server;
+	private static ExecutorService executor;
+	private static File endpoint;
+
+	@BeforeClass
+	public static void start() throws Exception {
+		stdout = System.out;
+		stderr = System.err;
+		stdin = System.in;
+		level = log.getLevel();
+		filter = log.getFilter();
+
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		executor = Executors.newCachedThreadPool(new DefaultThreadFactory("DaemonTest", Thread.NORM_PRIORITY, true));
+		endpoint = new File(folder.getRoot(), "daemon");
+
+		CmdlineDaemon daemon = new CmdlineDaemon(endpoint);
+		executor.execute(() -> {
+			try {
+				daemon.accept(server, executor);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		for (int i = 0; i < 100 && !endpoint.exists(); i++) {
+			Thread.sleep(50);
+		}
+	}
+
+	@AfterClass
+	public static void stop() throws Exception {
+		server.close();
+		executor.shutdownNow();
+		pool.shutdownNow();
+
+		System.setOut(stdout);
+		System.setErr(stderr);
+		System.setIn(stdin);
+		log.setLevel(level);
+		log.setFilter(filter);
+	}
+
+	private static class Result {
+
+		private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+		private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+		private Integer status;
+
+		public String getOutput() {
+			return new String(stdout.toByteArray(), UTF_8).trim();
+		}
+
+		public String getErrorOutput() {
+			return new String(stderr.toByteArray(), UTF_8).trim();
+		}
+	}
+
+	private static Result run(File endpoint, File directory, String... argv) throws IOException {
+		Result r = new Result();
+		r.status = CmdlineDaemon.connect(endpoint, argv, directory, emptyMap(), new ByteArrayInputStream(new byte[0]), new PrintStream(r.stdout, true, "UTF-8"), new PrintStream(r.stderr, true, "UTF-8"));
+		return r;
+	}
+
+	@Test
+	public void endpoint() throws Exception {
+		assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(endpoint.toPath()));
+		assertFalse(new File(endpoint.getPath() + ".part").exists());
+	}
+
+	@Test(timeout = 30000)
+	public void protocol() throws Exception {
+		Result r = run(endpoint, folder.getRoot(), "-version");
+		assertEquals(0, r.status.intValue());
+		assertTrue(r.getOutput(), r.getOutput().endsWith(getSystemIdentifier()));
+
+		Result error = run(endpoint, folder.getRoot(), "-no-such-option");
+		assertNotEquals(0, error.status.intValue());
+		assertEquals("", error.getOutput());
+		assertFalse(error.getErrorOutput().isEmpty());
+
+		// no daemon running
+		assertNull(run(new File(folder.getRoot(), "missing"), folder.getRoot(), "-version").status);
+	}
+
+	@Test(timeout = 30000, expected = IOException.class)
+	public void token() throws Exception {
+		String port = Files.readAllLines(endpoint.toPath(), UTF_8).get(0);
+
+		File forged = folder.newFile();
+		Files.write(forged.toPath(), (port + "\nFORGED").getBytes(UTF_8));
+
+		// connection is closed without running the command
+		run(forged, folder.getRoot(), "-version");
+	}
+
+	@Test(timeout = 60000)
+	public void isolation() throws Exception {
+		File a = folder.newFolder("a");
+		File b = folder.newFolder("b");
+
+		String script = "g:net.filebot.Logging.log.info('INFO'); def unixfs = new java.util.concurrent.Callable() { def call() { net.filebot.Settings.isUnixFS() } }; println([unixfs.call(), net.filebot.cli.CmdlineDaemonTest.pool.newTaskGroup(5).submit(unixfs).get(), net.filebot.cli.CmdlineDaemon.getWorkingDirectory().name].join(' '))";
+
+		ExecutorService clients = Executors.newFixedThreadPool(2);
+		try {
+			Future<Result> ra = clients.submit(() -> run(endpoint, a, "-script", script, "-unixfs", "--log", "warning"));
+			Future<Result> rb = clients.submit(() -> run(endpoint, b, "-script", script, "--log", "info"));
+
+			assertEquals("true true a", ra.get().getOutput());
+			assertEquals("INFO\nfalse false b", rb.get().getOutput());
+			assertEquals(0, ra.get().status.intValue());
+			assertEquals(0, rb.get().status.intValue());
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+}
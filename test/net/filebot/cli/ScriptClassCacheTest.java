@@ -0,0 +1,93 @@
+package net.filebot.cli;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+
+public class ScriptClassCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String SCRIPT = "[1, 2, 3].collect{ it * 2 }.sum()";
+
+	private ScriptClassCache cache(String header) {
+		return new ScriptClassCache(folder.getRoot(), header);
+	}
+
+	private Object eval(ScriptClassCache cache, String script) throws Exception {
+		return new GroovyScriptEngineImpl(cache.createClassLoader(getClass().getClassLoader(), new CompilerConfiguration())).eval(script);
+	}
+
+	private Class<?> parse(ScriptClassCache cache, String script) throws Exception {
+		return cache.createClassLoader(getClass().getClassLoader(), new CompilerConfiguration()).parseClass(new GroovyCodeSource(script, "Script1.groovy", GroovyShell.DEFAULT_CODE_BASE), false);
+	}
+
+	@Test
+	public void cacheHit() throws Exception {
+		ScriptClassCache cache = cache("header");
+		File file = new File(folder.getRoot(), cache.getKey(SCRIPT));
+
+		// newly compiled classes are defined by the groovy class loader
+		assertTrue(parse(cache, SCRIPT).getClassLoader() instanceof GroovyClassLoader);
+		assertTrue(file.isFile());
+
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		long lastModified = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+		file.setLastModified(lastModified);
+
+		// compiled classes are loaded from disk by another cache instance without being compiled again
+		Class<?> cached = parse(cache("header"), SCRIPT);
+		assertFalse(cached.getClassLoader() instanceof GroovyClassLoader);
+		assertEquals(12, ((Script) cached.getConstructor().newInstance()).run());
+
+		// recently used files are kept from expiring but never rewritten
+		assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+		assertTrue(file.lastModified() > lastModified);
+		assertEquals(12, eval(cache("header"), SCRIPT));
+	}
+
+	@Test
+	public void headerChanged() throws Exception {
+		ScriptClassCache cache = cache("header");
+		assertEquals(12, eval(cache, SCRIPT));
+
+		// different base class or default imports yield different keys
+		ScriptClassCache other = cache("other header");
+		assertNotEquals(cache.getKey(SCRIPT), other.getKey(SCRIPT));
+		assertNull(other.get(other.getKey(SCRIPT)));
+
+		assertEquals(12, eval(other, SCRIPT));
+		assertNotNull(other.get(other.getKey(SCRIPT)));
+	}
+
+	@Test
+	public void corruptClassFile() throws Exception {
+		ScriptClassCache cache = cache("header");
+		String key = cache.getKey(SCRIPT);
+		File file = new File(folder.getRoot(), key);
+
+		Files.write(file.toPath(), "CORRUPT".getBytes(UTF_8));
+		assertNull(cache.get(key));
+
+		// corrupt files are ignored and replaced with newly compiled classes
+		assertEquals(12, eval(cache, SCRIPT));
+		assertNotNull(cache.get(key));
+		assertEquals(12, eval(cache("header"), SCRIPT));
+	}
+
+}
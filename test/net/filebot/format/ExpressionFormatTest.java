@@ -1,8 +1,12 @@
 
 package net.filebot.format;
 
+import static java.util.stream.Collectors.*;
 import static org.junit.Assert.*;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import javax.script.Bindings;
 import javax.script.CompiledScript;
 import javax.script.ScriptException;
@@ -97,19 +101,83 @@ public class ExpressionFormatTest {
 	@Test
 	public void illegalBinding() throws Exception {
 		TestScriptFormat format = new TestScriptFormat("Hello {xyz}");
-		format.format(new SimpleBindings());
+		ExpressionFormat.Result result = format.evaluate(new SimpleBindings());
 
 		// check message
-		assertEquals("Suppressed: Binding \"xyz\": undefined", format.suppressed().getMessage());
+		assertEquals("Hello ", result.getValue());
+		assertEquals("Suppressed: Binding \"xyz\": undefined", result.getSuppressed().getMessage());
 	}
 
 	@Test
 	public void illegalProperty() throws Exception {
 		TestScriptFormat format = new TestScriptFormat("Hello {value.xyz}");
-		format.format("test");
+		ExpressionFormat.Result result = format.evaluate("test");
 
 		// check message
-		assertEquals("Suppressed: Binding \"xyz\": undefined", format.suppressed().getMessage());
+		assertEquals("Suppressed: Binding \"xyz\": undefined", result.getSuppressed().getMessage());
+	}
+
+	@Test
+	public void concurrentFormat() throws Exception {
+		TestScriptFormat format = new TestScriptFormat("{value.pad(4)}{value.xyz}");
+
+		List<ExpressionFormat.Result> results = IntStream.range(0, 1000).parallel().mapToObj(i -> format.evaluate(i)).collect(toList());
+
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(String.format("%04d", i), results.get(i).getValue());
+			assertEquals("Suppressed: Binding \"xyz\": undefined", results.get(i).getSuppressed().getMessage());
+		}
+	}
+
+	@Test
+	public void templateScriptlets() throws Exception {
+		TestScriptFormat format = new TestScriptFormat("{value.lower()}-{value.upper()}-{value.size()}");
+
+		// all scriptlets are compiled into the same template and share the script engine
+		Object[] expression = format.compile("{value.lower()}-{value.upper()}");
+		assertNotNull(((CompiledScript) expression[0]).getEngine());
+		assertSame(((CompiledScript) expression[0]).getEngine(), ((CompiledScript) expression[2]).getEngine());
+
+		assertEquals("abc-ABC-3", format.format("aBc"));
+	}
+
+	@Test
+	public void templateScriptletEvalBindings() throws Exception {
+		Object[] expression = new TestScriptFormat("").compile("{value.pad(3)}");
+
+		// standard CompiledScript API with engine scope bindings
+		Bindings bindings = new SimpleBindings();
+		bindings.put("value", 7);
+
+		assertEquals("007", ((CompiledScript) expression[0]).eval(bindings));
+	}
+
+	@Test
+	public void templateSharedBindings() throws Exception {
+		// variables assigned by one scriptlet are visible to the following scriptlets of the same evaluation only
+		TestScriptFormat format = new TestScriptFormat("{x = value * 2; x}-{x + 1}");
+
+		assertEquals("4-5", format.format(2));
+		assertEquals("6-7", format.format(3));
+	}
+
+	@Test
+	public void templateErrors() throws Exception {
+		TestScriptFormat format = new TestScriptFormat("{value}{value.xyz}{1 / 0}{value}");
+		ExpressionFormat.Result result = format.evaluate("A");
+
+		// errors of one scriptlet don't affect the other scriptlets
+		assertEquals("AA", result.getValue());
+		assertEquals(2, result.getSuppressed().getCauses().length);
+		assertEquals("Suppressed: Binding \"xyz\": undefined | Division by zero", result.getSuppressed().getMessage());
+
+		try {
+			new TestScriptFormat("{value.xyz}{1 / 0}").evaluate("A");
+			fail("exception expected");
+		} catch (SuppressedThrowables e) {
+			assertEquals(2, e.getCauses().length);
+			assertEquals("Expression yields empty value: Binding \"xyz\": undefined | Division by zero", e.getMessage());
+		}
 	}
 
 	protected static class TestScriptFormat extends ExpressionFormat {
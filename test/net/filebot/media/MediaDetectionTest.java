@@ -1,10 +1,21 @@
 package net.filebot.media;
 
+import static java.util.Arrays.*;
 import static java.util.Collections.*;
+import static java.util.stream.Collectors.*;
+import static net.filebot.similarity.CommonSequenceMatcher.*;
+import static net.filebot.util.FileUtilities.*;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.junit.Test;
 
@@ -27,6 +38,79 @@ public class MediaDetectionTest {
 		assertEquals("[]", MediaDetection.detectSeriesNames(singleton(new File("Movie/LOTR.2001.AVC-1080")), false, Locale.ENGLISH).toString());
 	}
 
+	@Test
+	public void mapSeriesNamesByFolder() throws Exception {
+		// case and accent variants, alias names that join different series, and folders without series names
+		Map<File, Set<String>> seriesNamesByFolder = new LinkedHashMap<File, Set<String>>();
+		seriesNamesByFolder.put(new File("A"), names("Série One"));
+		seriesNamesByFolder.put(new File("B"), names("serie one"));
+		seriesNamesByFolder.put(new File("C"), names("SERIE ONE", "Alias"));
+		seriesNamesByFolder.put(new File("D"), names("alias"));
+		seriesNamesByFolder.put(new File("E"), names("Other Show"));
+		seriesNamesByFolder.put(new File("F"), names("other shöw"));
+		seriesNamesByFolder.put(new File("G"), names("Third Show"));
+		seriesNamesByFolder.put(new File("H"), names());
+
+		// one episode per folder so that each group of folders yields exactly one batch set
+		List<File> files = new ArrayList<File>();
+		int episode = 1;
+		for (File folder : seriesNamesByFolder.keySet()) {
+			files.add(new File(folder, String.format("S01E%02d.mkv", episode++)));
+		}
+
+		Map<Set<File>, Set<String>> batchSets = MediaDetection.mapSeriesNamesByFolder(files, mapByFolder(files), seriesNamesByFolder, Locale.ENGLISH);
+		Map<Set<File>, Set<String>> expected = mapSeriesNamesByFolderReference(seriesNamesByFolder);
+
+		assertEquals("[[A, B, C, D], [E, F], [G], [H]]", expected.keySet().stream().map(Object::toString).sorted().collect(toList()).toString());
+		assertEquals(expected.size(), batchSets.size());
+
+		batchSets.forEach((batch, names) -> {
+			Set<File> folders = batch.stream().map(File::getParentFile).collect(toCollection(TreeSet::new));
+			assertEquals(expected.get(folders), names);
+		});
+	}
+
+	private static Set<String> names(String... names) {
+		Set<String> set = new TreeSet<String>(getLenientCollator(Locale.ENGLISH));
+		set.addAll(asList(names));
+		return set;
+	}
+
+	/**
+	 * Join folders via series names using {@link TreeSet#contains(Object)} with the lenient collator, like the original implementation did.
+	 */
+	private static Map<Set<File>, Set<String>> mapSeriesNamesByFolderReference(Map<File, Set<String>> seriesNamesByFolder) {
+		Map<String, Set<File>> foldersBySeriesName = new HashMap<String, Set<File>>();
+		seriesNamesByFolder.values().forEach(nameSet -> nameSet.forEach(name -> {
+			seriesNamesByFolder.forEach((folder, names) -> {
+				if (names.contains(name)) {
+					foldersBySeriesName.computeIfAbsent(name, k -> new TreeSet<File>()).add(folder);
+				}
+			});
+		}));
+
+		Map<Set<File>, Set<String>> groups = new HashMap<Set<File>, Set<String>>();
+		Set<File> accounted = new TreeSet<File>();
+
+		for (File seed : seriesNamesByFolder.keySet()) {
+			if (accounted.contains(seed)) {
+				continue;
+			}
+
+			Set<File> folders = new TreeSet<File>(singleton(seed));
+			Set<String> names = names();
+			boolean modified = true;
+			while (modified) {
+				modified = names.addAll(folders.stream().flatMap(f -> seriesNamesByFolder.get(f).stream()).collect(toList()));
+				modified |= folders.addAll(names.stream().flatMap(n -> foldersBySeriesName.get(n).stream()).collect(toList()));
+			}
+
+			accounted.addAll(folders);
+			groups.put(folders, names);
+		}
+		return groups;
+	}
+
 	@Test
 	public void grepImdbId() throws Exception {
 		assertEquals("[499549]", MediaDetection.grepImdbId("@see http://www.imdb.com/title/tt0499549/").toString());
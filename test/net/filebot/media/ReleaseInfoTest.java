@@ -50,6 +50,20 @@ public class ReleaseInfoTest {
 		assertEquals("John [2016]  ", clean(info.getClutterBracketPattern(false), "John [2016] [Action, Drama] (ENG)"));
 	}
 
+	@Test
+	public void getDictionaryPattern() throws Exception {
+		String[] groups = { "aXXo", "DVL", "D.Z0N3", "\\Q[HorribleSubs]\\E", "Legend" };
+		DictionaryPattern dictionary = new DictionaryPattern(groups, g -> Pattern.compile("(?<!\\p{Alnum})(" + String.join("|", g) + ")(?!\\p{Alnum})", Pattern.CASE_INSENSITIVE));
+
+		for (String s : new String[] { "Jurassic.Park[1993]DvDrip-AXXO", "[HorribleSubs]_Infinite_Stratos_2", "Some.Show.WEB-DL-DxZ0N3", "The.Legend.of.the.Blue.Sea-dvl", "Movie.2016" }) {
+			assertEquals(clean(dictionary.getPattern(), s), clean(dictionary.getPattern(s), s));
+		}
+
+		// regular expression alternatives are always included
+		assertEquals("(?<!\\p{Alnum})(D.Z0N3)(?!\\p{Alnum})", dictionary.getPattern("Movie.2016").pattern());
+		assertEquals("(?<!\\p{Alnum})(DVL|D.Z0N3)(?!\\p{Alnum})", dictionary.getPattern("Movie-DVL").pattern());
+	}
+
 	private static String clean(Pattern p, String s) {
 		return p.matcher(s).replaceAll("");
 	}
@@ -0,0 +1,62 @@
+package net.filebot.media;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class XattrFingerprintTest {
+
+	private File createFile(byte[] data) throws Exception {
+		File file = File.createTempFile(getClass().getSimpleName(), ".bin");
+		file.deleteOnExit();
+		Files.write(file.toPath(), data);
+		return file;
+	}
+
+	private byte[] randomData(int size) {
+		byte[] data = new byte[size];
+		new Random(42).nextBytes(data);
+		return data;
+	}
+
+	@Test
+	public void isDuplicate() throws Exception {
+		byte[] data = randomData(4 * 1024 * 1024);
+
+		assertTrue(XattrFingerprint.isDuplicate(createFile(data), createFile(data)));
+		assertFalse(XattrFingerprint.isDuplicate(createFile(data), createFile(randomData(1024))));
+	}
+
+	@Test
+	public void isDuplicateSampledBlocks() throws Exception {
+		byte[] data = randomData(4 * 1024 * 1024);
+		byte[] last = data.clone();
+		last[last.length - 1]++;
+
+		assertFalse(XattrFingerprint.isDuplicate(createFile(data), createFile(last)));
+	}
+
+	@Test
+	public void sampleAndFull() throws Exception {
+		byte[] data = randomData(4 * 1024 * 1024);
+		byte[] unsampled = data.clone();
+		unsampled[100 * 1024]++;
+
+		File a = createFile(data);
+		File b = createFile(unsampled);
+
+		assertEquals(XattrFingerprint.SAMPLE.compute(a), XattrFingerprint.SAMPLE.compute(b));
+		assertNotEquals(XattrFingerprint.FULL.compute(a), XattrFingerprint.FULL.compute(b));
+	}
+
+	@Test
+	public void smallFiles() throws Exception {
+		File a = createFile(randomData(1000));
+		assertEquals(XattrFingerprint.FULL.compute(a), XattrFingerprint.SAMPLE.compute(a));
+	}
+
+}
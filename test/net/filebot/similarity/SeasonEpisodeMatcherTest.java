@@ -36,6 +36,15 @@ public class SeasonEpisodeMatcherTest {
 		assertEquals("[2x17, 2x18]", matcher.match("[Season 2 Episode 17-18]").toString());
 	}
 
+	@Test
+	public void memoizedMatch() {
+		// repeated matches return equal but independent results
+		matcher.match("Test.s01e01.s01e02").clear();
+		assertEquals("[1x01, 1x02]", matcher.match("Test.s01e01.s01e02").toString());
+		assertEquals(null, matcher.match("Test.s01e01.s01e02".replaceAll("\\d", "")));
+		assertEquals(null, matcher.match("No Numbers"));
+	}
+
 	@Test
 	public void pattern_1x01() {
 		assertEquals(new SxE(1, 1), matcher.match("1x01").get(0));
@@ -0,0 +1,41 @@
+package net.filebot.subtitle;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.stream.Collectors.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import net.filebot.vfs.MemoryFile;
+
+public class SubtitleFormatTest {
+
+	String srt = "1\r\n00:00:01,000 --> 00:00:02,500\r\n<i>Hello</i>\r\nWorld\r\n\r\n2\r\n00:00:03,000 --> 00:00:04,000\r\nBye\r\n";
+	String ass = "[Script Info]\nTitle: Test\n\n[Events]\nFormat: Layer, Start, End, Style, Name, MarginL, MarginR, MarginV, Effect, Text\nDialogue: 0,0:00:01.00,0:00:02.50,Default,,0,0,0,,{\\i1}Hello{\\i0}\\NWorld\n";
+	String sub = "{1}{1}25\n{25}{50}Hello|World\n";
+
+	@Test
+	public void forContent() {
+		assertEquals(SubtitleFormat.SubRip, SubtitleFormat.forContent(srt));
+		assertEquals(SubtitleFormat.SubStationAlpha, SubtitleFormat.forContent(ass));
+		assertEquals(SubtitleFormat.MicroDVD, SubtitleFormat.forContent(sub));
+		assertEquals(SubtitleFormat.SubViewer, SubtitleFormat.forContent("[INFORMATION]\n00:00:01.00,00:00:02.50\nHello[br]World\n"));
+		assertEquals(SubtitleFormat.SAMI, SubtitleFormat.forContent("<SAMI>\n<BODY>\n<SYNC Start=1000><P>Hello\n</BODY>\n</SAMI>"));
+		assertEquals(null, SubtitleFormat.forContent("Hello World"));
+	}
+
+	@Test
+	public void decodeSubtitles() throws Exception {
+		// decode by content regardless of file extension
+		assertEquals("[[1000, 2500] Hello\nWorld, [3000, 4000] Bye]", decode("Test.txt", srt));
+		assertEquals("[[1000, 2500] Hello\nWorld]", decode("Test.srt", ass));
+		assertEquals("[[625, 1250] Hello\nWorld]", decode("Test.srt", sub));
+	}
+
+	private String decode(String name, String content) throws Exception {
+		return SubtitleUtilities.decodeSubtitles(new MemoryFile(name, ByteBuffer.wrap(content.getBytes(UTF_8)))).stream().map(it -> String.format("[%d, %d] %s", it.getStart(), it.getEnd(), it.getText())).collect(toList()).toString();
+	}
+
+}
@@ -6,7 +6,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ MicroDVDReaderTest.class })
+@SuiteClasses({ MicroDVDReaderTest.class, SubtitleFormatTest.class })
 public class SubtitleReaderTestSuite {
 
 }
@@ -0,0 +1,102 @@
+package net.filebot.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PriorityThreadPoolTest {
+
+	private PriorityThreadPool pool = new PriorityThreadPool("Test", 1);
+
+	@After
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test(timeout = 10000)
+	public void nestedTasks() throws Exception {
+		ExecutorService outer = pool.newTaskGroup(Thread.NORM_PRIORITY);
+
+		// subtasks must not wait for the only thread which is busy waiting for the subtasks
+		Future<Integer> sum = outer.submit(() -> {
+			ExecutorService inner = pool.newTaskGroup(Thread.NORM_PRIORITY);
+			try {
+				List<Future<Integer>> values = new ArrayList<Future<Integer>>();
+				for (int i = 1; i <= 10; i++) {
+					int value = i;
+					values.add(inner.submit(() -> value));
+				}
+
+				int n = 0;
+				for (Future<Integer> it : values) {
+					n += it.get();
+				}
+				return n;
+			} finally {
+				inner.shutdownNow();
+			}
+		});
+
+		assertEquals(55, sum.get().intValue());
+	}
+
+	@Test(timeout = 10000)
+	public void priority() throws Exception {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> order = new ArrayList<String>();
+
+		// keep the only thread busy until all tasks have been queued
+		pool.newTaskGroup(Thread.MAX_PRIORITY).submit(() -> {
+			blocked.countDown();
+			release.await();
+			return null;
+		});
+		blocked.await();
+
+		Future<?> low = pool.newTaskGroup(Thread.MIN_PRIORITY).submit(() -> order.add("low"));
+		Future<?> high = pool.newTaskGroup(Thread.MAX_PRIORITY).submit(() -> order.add("high"));
+
+		assertEquals(2, pool.getQueueSize());
+		release.countDown();
+
+		low.get();
+		high.get();
+
+		assertEquals("[high, low]", order.toString());
+	}
+
+	@Test(timeout = 10000)
+	public void shutdownNow() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		ExecutorService group = pool.newTaskGroup(Thread.NORM_PRIORITY);
+
+		Future<?> sleep = group.submit(() -> {
+			running.countDown();
+			Thread.sleep(60000);
+			return null;
+		});
+		Future<?> queued = group.submit(() -> null);
+		running.await();
+
+		// queued tasks are removed and running tasks are interrupted
+		assertEquals(1, group.shutdownNow().size());
+		assertTrue(group.awaitTermination(5, TimeUnit.SECONDS));
+
+		assertTrue(sleep.isCancelled());
+		assertTrue(queued.isCancelled());
+		assertEquals(0, pool.getQueueSize());
+
+		// other task groups are not affected
+		assertEquals("OK", pool.newTaskGroup(Thread.NORM_PRIORITY).submit(() -> "OK").get());
+	}
+
+}
@@ -0,0 +1,144 @@
+package net.filebot.vfs;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.filebot.archive.SevenZipLoader;
+import net.sf.sevenzipjbinding.IOutCreateArchive7z;
+import net.sf.sevenzipjbinding.IOutCreateCallback;
+import net.sf.sevenzipjbinding.IOutItem7z;
+import net.sf.sevenzipjbinding.ISequentialInStream;
+import net.sf.sevenzipjbinding.SevenZip;
+import net.sf.sevenzipjbinding.impl.InputStreamSequentialInStream;
+import net.sf.sevenzipjbinding.impl.OutItemFactory;
+import net.sf.sevenzipjbinding.impl.RandomAccessFileOutStream;
+
+public class SevenZipArchiveTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void requireNativeLibraries() {
+		try {
+			SevenZipLoader.getNativeVersion();
+		} catch (Throwable e) {
+			assumeNoException(e);
+		}
+	}
+
+	@Test
+	public void extract() throws Exception {
+		List<String> paths = new ArrayList<String>();
+		for (MemoryFile file : ArchiveType.SEVEN_ZIP.fromData(create7z())) {
+			paths.add(file.getPath());
+		}
+
+		// 7z orders solid archive entries by file extension
+		assertEquals("[Season 1/Alias.S01E01.srt, Alias.S01E02.srt, Info.nfo]", paths.toString());
+	}
+
+	@Test
+	public void extractSelection() throws Exception {
+		Iterator<MemoryFile> it = ArchiveType.SEVEN_ZIP.fromData(create7z(), path -> path.endsWith(".srt")).iterator();
+
+		MemoryFile file = it.next();
+		assertEquals("Alias.S01E01.srt", file.getName());
+		assertEquals("1\n00:00:01,000 --> 00:00:02,000\nSeason 1/Alias.S01E01.srt\n", UTF_8.decode(file.getData()).toString());
+
+		assertEquals("Alias.S01E02.srt", it.next().getName());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void extractFirst() throws Exception {
+		ByteBuffer data = create7z();
+		List<String> paths = new ArrayList<String>();
+		Optional<MemoryFile> file = ArchiveType.SEVEN_ZIP.first(data, path -> paths.add(path) && path.endsWith(".srt"));
+
+		// entries after the first match are not read
+		assertEquals("Alias.S01E01.srt", file.get().getName());
+		assertEquals("[Season 1/Alias.S01E01.srt]", paths.toString());
+
+		assertEquals("Alias.S01E01.srt", ArchiveType.UNDEFINED.first(data, path -> path.endsWith(".srt")).get().getName());
+		assertFalse(ArchiveType.SEVEN_ZIP.first(data, path -> false).isPresent());
+	}
+
+	@Test
+	public void extractUndefined() throws Exception {
+		List<String> paths = new ArrayList<String>();
+		for (MemoryFile file : ArchiveType.UNDEFINED.fromData(create7z(), path -> path.endsWith(".srt"))) {
+			paths.add(file.getPath());
+		}
+
+		assertEquals("[Season 1/Alias.S01E01.srt, Alias.S01E02.srt]", paths.toString());
+	}
+
+	@Test
+	public void extractCorrupt() throws Exception {
+		assertFalse(ArchiveType.SEVEN_ZIP.fromData(ByteBuffer.wrap("CORRUPT".getBytes(UTF_8))).iterator().hasNext());
+	}
+
+	private ByteBuffer create7z() throws Exception {
+		String[] paths = { "Info.nfo", "Season 1", "Season 1/Alias.S01E01.srt", "Alias.S01E02.srt" };
+		File file = folder.newFile("archive.7z");
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); IOutCreateArchive7z archive = SevenZip.openOutArchive7z()) {
+			archive.createArchive(new RandomAccessFileOutStream(raf), paths.length, new IOutCreateCallback<IOutItem7z>() {
+
+				private byte[] getData(int index) {
+					return ("1\n00:00:01,000 --> 00:00:02,000\n" + paths[index] + "\n").getBytes(UTF_8);
+				}
+
+				@Override
+				public IOutItem7z getItemInformation(int index, OutItemFactory<IOutItem7z> factory) {
+					IOutItem7z item = factory.createOutItem();
+					item.setPropertyPath(paths[index]);
+
+					if (paths[index].contains(".")) {
+						item.setDataSize((long) getData(index).length);
+					} else {
+						item.setPropertyIsDir(true);
+					}
+					return item;
+				}
+
+				@Override
+				public ISequentialInStream getStream(int index) {
+					return paths[index].contains(".") ? new InputStreamSequentialInStream(new ByteArrayInputStream(getData(index))) : null;
+				}
+
+				@Override
+				public void setOperationResult(boolean success) {
+				}
+
+				@Override
+				public void setTotal(long total) {
+				}
+
+				@Override
+				public void setCompleted(long complete) {
+				}
+			});
+		}
+
+		return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+	}
+
+}
@@ -0,0 +1,68 @@
+package net.filebot.vfs;
+
+import static java.nio.charset.StandardCharsets.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+public class ZipArchiveTest {
+
+	@Test
+	public void extract() throws Exception {
+		List<String> paths = new ArrayList<String>();
+		for (MemoryFile file : ArchiveType.ZIP.fromData(createZip())) {
+			paths.add(file.getPath());
+		}
+
+		assertEquals("[Info.nfo, Season 1/Alias.S01E01.srt, Alias.S01E02.srt]", paths.toString());
+	}
+
+	@Test
+	public void extractSelection() throws Exception {
+		Iterator<MemoryFile> it = ArchiveType.ZIP.fromData(createZip(), path -> path.endsWith(".srt")).iterator();
+
+		MemoryFile file = it.next();
+		assertEquals("Alias.S01E01.srt", file.getName());
+		assertEquals("1\n00:00:01,000 --> 00:00:02,000\nSeason 1/Alias.S01E01.srt\n", UTF_8.decode(file.getData()).toString());
+
+		assertEquals("Alias.S01E02.srt", it.next().getName());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void extractFirst() throws Exception {
+		for (ArchiveType type : new ArchiveType[] { ArchiveType.ZIP, ArchiveType.UNDEFINED }) {
+			List<String> paths = new ArrayList<String>();
+			MemoryFile file = type.first(createZip(), path -> paths.add(path) && path.endsWith(".srt")).get();
+
+			// entries after the first match are not read
+			assertEquals("Alias.S01E01.srt", file.getName());
+			assertEquals("[Info.nfo, Season 1/Alias.S01E01.srt]", paths.toString());
+		}
+	}
+
+	private ByteBuffer createZip() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (String path : new String[] { "Info.nfo", "Season 1/", "Season 1/Alias.S01E01.srt", "Alias.S01E02.srt" }) {
+				zip.putNextEntry(new ZipEntry(path));
+				if (!path.endsWith("/")) {
+					zip.write(("1\n00:00:01,000 --> 00:00:02,000\n" + path + "\n").getBytes(UTF_8));
+				}
+				zip.closeEntry();
+			}
+		}
+
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+}